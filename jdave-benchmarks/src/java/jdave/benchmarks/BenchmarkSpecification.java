@@ -1,5 +1,5 @@
 /*
- * Copyright 2007 the original author or authors.
+ * Copyright 2009 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,13 +13,12 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package jdave.runner;
+package jdave.benchmarks;
 
-import java.io.File;
+import jdave.Specification;
 
 /**
- * @author Joni Freeman
+ * Gives benchmarks access to the specify methods without a runner.
  */
-interface IFileHandler {
-    void handle(File file);
+public class BenchmarkSpecification extends Specification<Object> {
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdave.runner.AsmLineNumberStrategy;
+import jdave.unfinalizer.internal.UnfinalizingClassVisitorDelegator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class file parse and transform throughput over a corpus of real class files,
+ * see {@link ClassFileCorpus}. Each operation handles one class of the corpus
+ * in turn, so the score is in classes per second and the
+ * <code>bytes</code> counter gives the class file throughput. Run with
+ * <code>-prof gc</code> to get the allocation per class as
+ * <code>gc.alloc.rate.norm</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassFileBenchmark {
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        List<byte[]> classFiles;
+        List<Class<?>> classes;
+        int[] classFileSizes;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            ClassFileCorpus corpus = ClassFileCorpus.fromSystemProperty();
+            classFiles = corpus.getClassFiles();
+            classes = corpus.loadClasses();
+            classFileSizes = new int[classes.size()];
+            for (int i = 0; i < classes.size(); i++) {
+                classFileSizes[i] = corpus.classFileOf(classes.get(i)).length;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Line numbers of one class as the runner resolves them for ordering:
+     * the class file is read through the class loader and parsed with a cold
+     * cache.
+     */
+    @Benchmark
+    public int lineNumbers(Corpus corpus, Bytes bytes) {
+        int i = bytes.next++ % corpus.classes.size();
+        bytes.bytes += corpus.classFileSizes[i];
+        return new AsmLineNumberStrategy().firstLineNumber(corpus.classes.get(i), 0);
+    }
+
+    /**
+     * The unfinalizer's transform of one class file, as its class file
+     * transformer does for every loaded class.
+     */
+    @Benchmark
+    public byte[] unfinalize(Corpus corpus, Bytes bytes) {
+        byte[] classFile = corpus.classFiles.get(bytes.next++ % corpus.classFiles.size());
+        bytes.bytes += classFile.length;
+        return new UnfinalizingClassVisitorDelegator().transform(classFile);
+    }
+}
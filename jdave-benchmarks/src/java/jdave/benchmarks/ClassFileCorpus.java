@@ -0,0 +1,126 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import jdave.support.IO;
+
+/**
+ * The class files of a set of jars, read into memory. The jars are named by
+ * system property {@link #CORPUS} as a path, and default to the class path of
+ * the benchmark.
+ * <p>
+ * Only class files up to the major version given by system property
+ * {@link #MAX_VERSION} are included, by default 50 (Java 6), since the ASM
+ * versions used by JDave can not parse newer class files.
+ */
+public class ClassFileCorpus {
+    public static final String CORPUS = "jdave.benchmarks.corpus";
+    public static final String MAX_VERSION = "jdave.benchmarks.corpus.maxversion";
+
+    private final List<String> names = new ArrayList<String>();
+    private final List<byte[]> classFiles = new ArrayList<byte[]>();
+    private final ClassLoader loader;
+    private final int maxVersion = Integer.getInteger(MAX_VERSION, 50);
+
+    private ClassFileCorpus(String path) throws IOException {
+        List<URL> urls = new ArrayList<URL>();
+        for (String entry : path.split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (file.isFile() && entry.endsWith(".jar")) {
+                urls.add(file.toURI().toURL());
+                read(file);
+            }
+        }
+        loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), ClassFileCorpus.class.getClassLoader());
+    }
+
+    public static ClassFileCorpus fromSystemProperty() throws IOException {
+        return new ClassFileCorpus(System.getProperty(CORPUS, System.getProperty("java.class.path")));
+    }
+
+    private void read(File jar) throws IOException {
+        ZipFile zip = new ZipFile(jar);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class")) {
+                    byte[] classFile;
+                    InputStream in = zip.getInputStream(entry);
+                    try {
+                        classFile = IO.readBytes(in);
+                    } finally {
+                        in.close();
+                    }
+                    if (majorVersion(classFile) <= maxVersion) {
+                        classFiles.add(classFile);
+                        names.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+                    }
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static int majorVersion(byte[] classFile) {
+        return ((classFile[6] & 0xff) << 8) | (classFile[7] & 0xff);
+    }
+
+    public List<byte[]> getClassFiles() {
+        return classFiles;
+    }
+
+    /**
+     * Loads the classes of the corpus without initializing them. Classes
+     * which can not be loaded, for example because of missing optional
+     * dependencies, are left out.
+     */
+    public List<Class<?>> loadClasses() {
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name, false, loader));
+            } catch (Throwable e) {
+                // Not part of the loadable corpus.
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * @return the class file of given class in the corpus
+     */
+    public byte[] classFileOf(Class<?> clazz) {
+        return classFiles.get(names.indexOf(clazz.getName()));
+    }
+
+    public int size() {
+        return classFiles.size();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdave.IContainment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Specify of each collection containment over an actual collection of
+ * <code>size</code> elements. The expected elements are chosen so that every
+ * containment has to look at the whole actual collection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContainmentBenchmark {
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private BenchmarkSpecification spec;
+    private List<Integer> actual;
+    private List<Integer> all;
+    private List<Integer> last;
+    private List<Integer> everyOther;
+
+    @Setup
+    public void setUp() {
+        spec = new BenchmarkSpecification();
+        actual = new ArrayList<Integer>(size);
+        everyOther = new ArrayList<Integer>(size / 2 + 1);
+        for (int i = 0; i < size; i++) {
+            actual.add(new Integer(i));
+            if (i % 2 == 0) {
+                everyOther.add(new Integer(i));
+            }
+        }
+        all = new ArrayList<Integer>(size);
+        for (Integer i : actual) {
+            all.add(new Integer(i));
+        }
+        last = Collections.singletonList(new Integer(size - 1));
+    }
+
+    @Benchmark
+    public void containsAll() {
+        spec.specify(actual, spec.containsAll(all));
+    }
+
+    @Benchmark
+    public void containsAny() {
+        spec.specify(actual, spec.containsAny(last));
+    }
+
+    @Benchmark
+    public void containsExactly() {
+        spec.specify(actual, spec.containsExactly(all));
+    }
+
+    @Benchmark
+    public void containsInOrder() {
+        spec.specify(actual, spec.containsInOrder(all));
+    }
+
+    @Benchmark
+    public void containsInPartialOrder() {
+        spec.specify(actual, spec.containsInPartialOrder(everyOther));
+    }
+
+    @Benchmark
+    public boolean containsAllWithoutSpecify() {
+        IContainment<Integer> containment = spec.containsAll(all);
+        return containment.matches(actual);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jdave.util.Diff;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Diff#verbose()} of two strings of <code>length</code> characters
+ * which differ at the start, in the middle or at the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiffBenchmark {
+    @Param({ "100", "10000", "1000000" })
+    public int length;
+
+    private String actual;
+    private String differsAtStart;
+    private String differsInMiddle;
+    private String differsAtEnd;
+
+    @Setup
+    public void setUp() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + i % 26);
+        }
+        actual = new String(chars);
+        differsAtStart = differAt(chars, 0);
+        differsInMiddle = differAt(chars, length / 2);
+        differsAtEnd = differAt(chars, length - 1);
+    }
+
+    private String differAt(char[] chars, int index) {
+        char[] copy = chars.clone();
+        copy[index] = '#';
+        return new String(copy);
+    }
+
+    @Benchmark
+    public String differsAtStart() {
+        return Diff.diff(actual, differsAtStart).verbose();
+    }
+
+    @Benchmark
+    public String differsInMiddle() {
+        return Diff.diff(actual, differsInMiddle).verbose();
+    }
+
+    @Benchmark
+    public String differsAtEnd() {
+        return Diff.diff(actual, differsAtEnd).verbose();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import jdave.ExpectationFailedException;
+import jdave.IEqualityCheck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Specify with the equality checks returned by <code>equal(...)</code>,
+ * including the creation of the check as a spec would do it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EqualityBenchmark {
+    private BenchmarkSpecification spec;
+    private String string;
+    private String otherString;
+    private Long number;
+    private Object object;
+
+    @Setup
+    public void setUp() {
+        spec = new BenchmarkSpecification();
+        string = "The quick brown fox jumps over the lazy dog";
+        otherString = new String(string);
+        number = Long.valueOf(123456789L);
+        object = new Date(0);
+    }
+
+    @Benchmark
+    public void specifyObjectEquals() {
+        spec.specify(object, new Date(0));
+    }
+
+    @Benchmark
+    public void specifyEqualObject() {
+        spec.specify(object, spec.equal((Object) new Date(0)));
+    }
+
+    @Benchmark
+    public void specifyEqualString() {
+        spec.specify(string, spec.equal(otherString));
+    }
+
+    @Benchmark
+    public void specifyEqualLong() {
+        spec.specify(number, spec.equal(123456789L));
+    }
+
+    @Benchmark
+    public void specifyEqualWithDelta() {
+        spec.specify(1.0001, spec.equal(1.0, 0.001));
+    }
+
+    @Benchmark
+    public void specifyNotEqual() {
+        spec.specify(string, spec.not().equal("fox"));
+    }
+
+    @Benchmark
+    public Object specifyUnequalString() {
+        IEqualityCheck check = spec.equal(string + "!");
+        try {
+            spec.specify(string, check);
+            throw new IllegalStateException("strings should differ");
+        } catch (ExpectationFailedException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdave.util.Primitives;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Specify of primitive arrays, which boxes both actual and expected arrays
+ * through {@link Primitives#asList(Object)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitivesBenchmark {
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int size;
+
+    private BenchmarkSpecification spec;
+    private int[] ints;
+    private double[] doubles;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        spec = new BenchmarkSpecification();
+        ints = new int[size];
+        doubles = new double[size];
+        bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = i;
+            doubles[i] = i;
+            bytes[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    public List<?> intsAsList() {
+        return Primitives.asList(ints);
+    }
+
+    @Benchmark
+    public List<?> doublesAsList() {
+        return Primitives.asList(doubles);
+    }
+
+    @Benchmark
+    public void specifyIntsInOrder() {
+        spec.specify(ints, spec.containsInOrder(ints));
+    }
+
+    @Benchmark
+    public void specifyDoublesInOrder() {
+        spec.specify(doubles, spec.containsInOrder(doubles));
+    }
+
+    @Benchmark
+    public void specifyBytesContainLast() {
+        spec.specify(bytes, spec.contains(bytes[size - 1]));
+    }
+}
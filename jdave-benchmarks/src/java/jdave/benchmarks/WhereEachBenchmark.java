@@ -0,0 +1,92 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdave.Each;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Specify with <code>where(new Each&lt;T&gt;() {{ ... }})</code>, both
+ * matching items directly and through a recorded method call on the item.
+ * The Each is created in the benchmark, as a spec would do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WhereEachBenchmark {
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private BenchmarkSpecification spec;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        spec = new BenchmarkSpecification();
+        items = new ArrayList<Item>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i));
+        }
+    }
+
+    @Benchmark
+    public void matchItems() {
+        spec.specify(items, spec.where(new Each<Item>() {{
+            matches(item, is(notNullValue()));
+        }}));
+    }
+
+    @Benchmark
+    public void matchRecordedMethodCall() {
+        spec.specify(items, spec.where(new Each<Item>() {{
+            matches(item.getValue(), is(greaterThan(-1)));
+        }}));
+    }
+
+    public static class Item {
+        private final int value;
+
+        public Item(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
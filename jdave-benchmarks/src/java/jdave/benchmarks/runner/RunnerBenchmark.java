@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * End-to-end benchmark of the runner over a generated workload. It measures
+ * <code>SpecRunner.run</code>, <code>DescriptionFactory.create</code>,
+ * <code>JDaveRunner.run</code>, <code>JDaveGroupRunner</code> discovery and
+ * plain JUnit4 running the same work, each in a fresh JVM.
+ * <p>
+ * The shape of the workload is set with the system properties described in
+ * {@link SpecShape}. In addition:
+ * <ul>
+ * <li><code>jdave.benchmarks.dir</code>: where to generate the workload,
+ * default <code>target/synthetic-specs</code></li>
+ * <li><code>jdave.benchmarks.workloads</code>: space separated workloads to
+ * run, default all</li>
+ * <li><code>jdave.benchmarks.warmup</code> and
+ * <code>jdave.benchmarks.iterations</code>: iterations after the cold one,
+ * default 3 and 5</li>
+ * <li><code>jdave.benchmarks.jvmArgs</code>: arguments of the measuring JVMs,
+ * default <code>-Xmx1g</code></li>
+ * </ul>
+ */
+public class RunnerBenchmark {
+    static final String WORKLOADS = "spec-runner description jdave-runner group-discovery junit4";
+
+    public static void main(String[] args) throws Exception {
+        SpecShape shape = SpecShape.fromSystemProperties();
+        File dir = new File(System.getProperty(SpecShape.PREFIX + "dir", "target/synthetic-specs"));
+        String[] workloads = System.getProperty(SpecShape.PREFIX + "workloads", WORKLOADS).split("\\s+");
+        int warmup = Integer.getInteger(SpecShape.PREFIX + "warmup", 3);
+        int iterations = Integer.getInteger(SpecShape.PREFIX + "iterations", 5);
+
+        System.out.println("Generating " + shape + " into " + dir);
+        SyntheticSpecs specs = new SyntheticSpecs(shape, dir);
+        long start = System.nanoTime();
+        specs.generateAndCompile();
+        System.out.println("Generated in " + (System.nanoTime() - start) / 1000000 + " ms");
+        System.out.println();
+        System.out.println(String.format(Locale.ENGLISH, "%-16s %10s %10s %14s %12s", "workload", "cold ms",
+                "warm ms", "behaviors/s", "peak heap MB"));
+        for (String workload : workloads) {
+            String[] result = measure(workload, warmup, iterations, shape, specs.getClassesDir());
+            System.out.println(String.format(Locale.ENGLISH, "%-16s %10s %10s %14s %12d", result[1], result[2],
+                    result[3], result[4], Long.parseLong(result[5]) / (1024 * 1024)));
+        }
+    }
+
+    private static String[] measure(String workload, int warmup, int iterations, SpecShape shape,
+            File classesDir) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(Arrays.asList(System.getProperty(SpecShape.PREFIX + "jvmArgs", "-Xmx1g").trim().split("\\s+")));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path") + File.pathSeparator + classesDir.getAbsolutePath());
+        command.add(Workload.class.getName());
+        command.add(workload);
+        command.add(String.valueOf(warmup));
+        command.add(String.valueOf(iterations));
+        command.addAll(Arrays.asList(shape.toArgs()));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String[] result = null;
+        for (String line = output.readLine(); line != null; line = output.readLine()) {
+            if (line.startsWith(Workload.RESULT + " ")) {
+                result = line.split(" ");
+            } else {
+                System.err.println("  " + workload + ": " + line);
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("workload " + workload + " failed");
+        }
+        return result;
+    }
+}
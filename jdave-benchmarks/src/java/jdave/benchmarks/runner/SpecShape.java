@@ -0,0 +1,86 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks.runner;
+
+/**
+ * The shape of the generated workload. Read from system properties with
+ * prefix <code>jdave.benchmarks.</code>, for example
+ * <code>-Djdave.benchmarks.contexts=100</code>.
+ */
+public class SpecShape {
+    static final String PREFIX = "jdave.benchmarks.";
+
+    /** Number of specification classes. */
+    final int specs;
+    /** Contexts per specification. */
+    final int contexts;
+    /** Behaviors per context. */
+    final int behaviors;
+    /** Whether half of the behaviors of each context come from an abstract base context. */
+    final boolean inherited;
+    /** Whether each behavior sets and verifies an expectation on a mock. */
+    final boolean mocks;
+    /** Whether the specifications need thread local isolation. */
+    final boolean isolation;
+
+    SpecShape(int specs, int contexts, int behaviors, boolean inherited, boolean mocks, boolean isolation) {
+        this.specs = specs;
+        this.contexts = contexts;
+        this.behaviors = behaviors;
+        this.inherited = inherited;
+        this.mocks = mocks;
+        this.isolation = isolation;
+    }
+
+    static SpecShape fromSystemProperties() {
+        return new SpecShape(
+                Integer.getInteger(PREFIX + "specs", 10),
+                Integer.getInteger(PREFIX + "contexts", 100),
+                Integer.getInteger(PREFIX + "behaviors", 10),
+                Boolean.valueOf(System.getProperty(PREFIX + "inherited", "true")),
+                Boolean.valueOf(System.getProperty(PREFIX + "mocks", "true")),
+                Boolean.getBoolean(PREFIX + "isolation"));
+    }
+
+    int totalContexts() {
+        return specs * contexts;
+    }
+
+    int totalBehaviors() {
+        return specs * contexts * behaviors;
+    }
+
+    int inheritedBehaviors() {
+        return inherited ? behaviors / 2 : 0;
+    }
+
+    String[] toArgs() {
+        return new String[] { String.valueOf(specs), String.valueOf(contexts), String.valueOf(behaviors),
+                String.valueOf(inherited), String.valueOf(mocks), String.valueOf(isolation) };
+    }
+
+    static SpecShape fromArgs(String[] args, int offset) {
+        return new SpecShape(Integer.parseInt(args[offset]), Integer.parseInt(args[offset + 1]),
+                Integer.parseInt(args[offset + 2]), Boolean.valueOf(args[offset + 3]),
+                Boolean.valueOf(args[offset + 4]), Boolean.valueOf(args[offset + 5]));
+    }
+
+    @Override
+    public String toString() {
+        return specs + " specs, " + totalContexts() + " contexts, " + totalBehaviors() + " behaviors"
+                + " (inherited=" + inherited + ", mocks=" + mocks + ", isolation=" + isolation + ")";
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks.runner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates and compiles a workload of the given shape: JDave specifications,
+ * plain JUnit4 tests doing the same work, and a JDaveGroupRunner suite which
+ * discovers the specifications.
+ * <p>
+ * Each specification has its contexts as inner classes. Each JUnit4 test
+ * class corresponds to one context, with a <code>@Before</code> method in
+ * place of the context's <code>create</code> method.
+ */
+public class SyntheticSpecs {
+    static final String PACKAGE = "synthetic";
+    static final String SUITE = PACKAGE + ".AllSpecs";
+    static final String GROUP = "synthetic";
+
+    private final SpecShape shape;
+    private final File sourceDir;
+    private final File classesDir;
+
+    SyntheticSpecs(SpecShape shape, File dir) {
+        this.shape = shape;
+        this.sourceDir = new File(dir, "src");
+        this.classesDir = new File(dir, "classes");
+    }
+
+    static String specName(int spec) {
+        return PACKAGE + ".Spec" + spec;
+    }
+
+    static String testName(int spec, int context) {
+        return PACKAGE + ".Spec" + spec + "Context" + context + "Test";
+    }
+
+    File getClassesDir() {
+        return classesDir;
+    }
+
+    void generateAndCompile() throws IOException {
+        List<File> sources = new ArrayList<File>();
+        for (int spec = 0; spec < shape.specs; spec++) {
+            sources.add(write("Spec" + spec, spec(spec)));
+            if (shape.inherited) {
+                sources.add(write("Spec" + spec + "BaseTest", baseTest(spec)));
+            }
+            for (int context = 0; context < shape.contexts; context++) {
+                sources.add(write("Spec" + spec + "Context" + context + "Test", test(spec, context)));
+            }
+        }
+        sources.add(write("AllSpecs", suite()));
+        compile(sources);
+    }
+
+    private String spec(int spec) {
+        StringBuilder s = new StringBuilder();
+        s.append("package ").append(PACKAGE).append(";\n\n");
+        s.append("import java.util.*;\n");
+        s.append("import jdave.*;\n");
+        s.append("import jdave.junit4.JDaveRunner;\n");
+        s.append("import org.jmock.Expectations;\n");
+        s.append("import org.junit.runner.RunWith;\n\n");
+        s.append("@RunWith(JDaveRunner.class)\n");
+        s.append("@Group(\"").append(GROUP).append("\")\n");
+        s.append("public class Spec").append(spec).append(" extends Specification<List<Integer>> {\n");
+        if (shape.isolation) {
+            s.append("    @Override\n");
+            s.append("    public boolean needsThreadLocalIsolation() {\n");
+            s.append("        return true;\n");
+            s.append("    }\n\n");
+        }
+        if (shape.inherited) {
+            s.append("    public abstract class BaseContext {\n");
+            s.append("        protected Runnable collaborator;\n\n");
+            for (int behavior = 0; behavior < shape.inheritedBehaviors(); behavior++) {
+                behavior(s, "inheritedBehavior" + behavior, behavior);
+            }
+            s.append("    }\n\n");
+        }
+        for (int context = 0; context < shape.contexts; context++) {
+            s.append("    public class Context").append(context);
+            s.append(shape.inherited ? " extends BaseContext {\n" : " {\n");
+            if (!shape.inherited) {
+                s.append("        protected Runnable collaborator;\n\n");
+            }
+            s.append("        public List<Integer> create() {\n");
+            fixture(s);
+            s.append("            return list;\n");
+            s.append("        }\n\n");
+            for (int behavior = shape.inheritedBehaviors(); behavior < shape.behaviors; behavior++) {
+                behavior(s, "behavior" + behavior, behavior);
+            }
+            s.append("    }\n\n");
+        }
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private void fixture(StringBuilder s) {
+        s.append("            List<Integer> list = new ArrayList<Integer>();\n");
+        s.append("            for (int i = 0; i < 10; i++) {\n");
+        s.append("                list.add(i);\n");
+        s.append("            }\n");
+        if (shape.mocks) {
+            s.append("            collaborator = mock(Runnable.class);\n");
+        }
+    }
+
+    private void behavior(StringBuilder s, String name, int behavior) {
+        s.append("        public void ").append(name).append("() {\n");
+        if (shape.mocks) {
+            s.append("            checking(new Expectations() {{\n");
+            s.append("                one(collaborator).run();\n");
+            s.append("            }});\n");
+            s.append("            collaborator.run();\n");
+        }
+        s.append("            specify(context, contains(").append(behavior % 10).append("));\n");
+        s.append("            specify(context.size(), should.equal(10));\n");
+        s.append("        }\n\n");
+    }
+
+    private String baseTest(int spec) {
+        StringBuilder s = new StringBuilder();
+        testHeader(s);
+        s.append("public abstract class Spec").append(spec).append("BaseTest {\n");
+        testFields(s);
+        for (int behavior = 0; behavior < shape.inheritedBehaviors(); behavior++) {
+            testMethod(s, "inheritedBehavior" + behavior, behavior);
+        }
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private String test(int spec, int context) {
+        StringBuilder s = new StringBuilder();
+        testHeader(s);
+        s.append("public class Spec").append(spec).append("Context").append(context).append("Test");
+        s.append(shape.inherited ? " extends Spec" + spec + "BaseTest {\n" : " {\n");
+        if (!shape.inherited) {
+            testFields(s);
+        }
+        for (int behavior = shape.inheritedBehaviors(); behavior < shape.behaviors; behavior++) {
+            testMethod(s, "behavior" + behavior, behavior);
+        }
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private void testHeader(StringBuilder s) {
+        s.append("package ").append(PACKAGE).append(";\n\n");
+        s.append("import static org.junit.Assert.*;\n");
+        s.append("import java.util.*;\n");
+        s.append("import org.jmock.Expectations;\n");
+        s.append("import org.jmock.Mockery;\n");
+        s.append("import org.junit.*;\n\n");
+    }
+
+    private void testFields(StringBuilder s) {
+        s.append("    protected List<Integer> context;\n");
+        s.append("    protected Mockery mockery;\n");
+        s.append("    protected Runnable collaborator;\n\n");
+        s.append("    @Before\n");
+        s.append("    public void create() {\n");
+        s.append("        List<Integer> list = new ArrayList<Integer>();\n");
+        s.append("        for (int i = 0; i < 10; i++) {\n");
+        s.append("            list.add(i);\n");
+        s.append("        }\n");
+        s.append("        context = list;\n");
+        if (shape.mocks) {
+            s.append("        mockery = new Mockery();\n");
+            s.append("        collaborator = mockery.mock(Runnable.class);\n");
+        }
+        s.append("    }\n\n");
+        if (shape.mocks) {
+            s.append("    @After\n");
+            s.append("    public void verify() {\n");
+            s.append("        mockery.assertIsSatisfied();\n");
+            s.append("    }\n\n");
+        }
+    }
+
+    private void testMethod(StringBuilder s, String name, int behavior) {
+        s.append("    @Test\n");
+        s.append("    public void ").append(name).append("() {\n");
+        if (shape.mocks) {
+            s.append("        mockery.checking(new Expectations() {{\n");
+            s.append("            one(collaborator).run();\n");
+            s.append("        }});\n");
+            s.append("        collaborator.run();\n");
+        }
+        s.append("        assertTrue(context.contains(").append(behavior % 10).append("));\n");
+        s.append("        assertEquals(10, context.size());\n");
+        s.append("    }\n\n");
+    }
+
+    private String suite() {
+        StringBuilder s = new StringBuilder();
+        s.append("package ").append(PACKAGE).append(";\n\n");
+        s.append("import jdave.junit4.*;\n");
+        s.append("import jdave.runner.Groups;\n");
+        s.append("import org.junit.runner.RunWith;\n\n");
+        s.append("@RunWith(JDaveGroupRunner.class)\n");
+        s.append("@Groups(include = \"").append(GROUP).append("\")\n");
+        s.append("@SpecDirs(\"").append(classesDir.getAbsolutePath().replace("\\", "\\\\")).append("\")\n");
+        s.append("public class AllSpecs {\n");
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private File write(String simpleName, String source) throws IOException {
+        File dir = new File(sourceDir, PACKAGE);
+        dir.mkdirs();
+        File file = new File(dir, simpleName + ".java");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(source);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private void compile(List<File> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("A JDK is needed to compile the synthetic specs");
+        }
+        classesDir.mkdirs();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+            List<String> options = Arrays.asList("-d", classesDir.getPath(), "-classpath",
+                    System.getProperty("java.class.path"), "-encoding", "UTF-8", "-nowarn", "-g");
+            if (!compiler.getTask(null, fileManager, null, options, null, units).call()) {
+                throw new IllegalStateException("Compiling synthetic specs failed, see " + sourceDir);
+            }
+        } finally {
+            fileManager.close();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.benchmarks.runner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jdave.ExpectationFailedException;
+import jdave.Specification;
+import jdave.junit4.DescriptionFactory;
+import jdave.junit4.JDaveGroupRunner;
+import jdave.junit4.JDaveRunner;
+import jdave.runner.Behavior;
+import jdave.runner.Context;
+import jdave.runner.IBehaviorResults;
+import jdave.runner.ISpecVisitor;
+import jdave.runner.SpecRunner;
+
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+/**
+ * One measured part of the runner, run in its own JVM by
+ * {@link RunnerBenchmark}. The first iteration is reported separately as the
+ * cold time, since it includes class loading and the building of cached spec
+ * models.
+ */
+public abstract class Workload {
+    static final String RESULT = "RESULT";
+
+    protected final SpecShape shape;
+    protected final AtomicInteger failures = new AtomicInteger();
+
+    Workload(SpecShape shape) {
+        this.shape = shape;
+    }
+
+    static Workload of(String kind, SpecShape shape) {
+        if (kind.equals("spec-runner")) {
+            return new SpecRunnerWorkload(shape);
+        } else if (kind.equals("description")) {
+            return new DescriptionWorkload(shape);
+        } else if (kind.equals("jdave-runner")) {
+            return new JDaveRunnerWorkload(shape);
+        } else if (kind.equals("group-discovery")) {
+            return new GroupDiscoveryWorkload(shape);
+        } else if (kind.equals("junit4")) {
+            return new JUnit4Workload(shape);
+        }
+        throw new IllegalArgumentException("unknown workload '" + kind + "'");
+    }
+
+    /**
+     * Runs the workload and prints a result line:
+     * <code>RESULT kind coldMillis warmMillis behaviorsPerSecond peakHeapBytes</code>.
+     * Usage: <code>Workload kind warmup iterations specs contexts behaviors inherited mocks isolation</code>
+     */
+    public static void main(String[] args) throws Exception {
+        String kind = args[0];
+        int warmup = Integer.parseInt(args[1]);
+        int iterations = Integer.parseInt(args[2]);
+        Workload workload = of(kind, SpecShape.fromArgs(args, 3));
+        workload.load();
+        System.gc();
+        resetPeakHeap();
+
+        long start = System.nanoTime();
+        workload.run();
+        long cold = System.nanoTime() - start;
+        for (int i = 0; i < warmup; i++) {
+            workload.run();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            workload.run();
+        }
+        long warm = (System.nanoTime() - start) / Math.max(1, iterations);
+        if (workload.failures.get() > 0) {
+            System.err.println(kind + ": " + workload.failures.get() + " behaviors failed");
+        }
+        double behaviorsPerSecond = workload.shape.totalBehaviors() / (warm / 1e9);
+        System.out.println(RESULT + " " + kind + " " + cold / 1000000 + " " + warm / 1000000 + " "
+                + (long) behaviorsPerSecond + " " + peakHeap());
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the peak usages of the heap pools, an upper bound of
+     * the heap high-water mark
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Loads the classes of the workload. Not measured, so that the cold time
+     * is comparable between JDave and JUnit4.
+     */
+    abstract void load() throws Exception;
+
+    abstract void run() throws Exception;
+
+    protected List<Class<? extends Specification<?>>> loadSpecs() throws ClassNotFoundException {
+        List<Class<? extends Specification<?>>> specs = new ArrayList<Class<? extends Specification<?>>>();
+        for (int spec = 0; spec < shape.specs; spec++) {
+            specs.add(loadSpec(SyntheticSpecs.specName(spec)));
+        }
+        return specs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Specification<?>> loadSpec(String name) throws ClassNotFoundException {
+        return (Class<? extends Specification<?>>) Class.forName(name);
+    }
+
+    protected RunNotifier newNotifier() {
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener(new RunListener() {
+            @Override
+            public void testFailure(Failure failure) {
+                failures.incrementAndGet();
+            }
+        });
+        return notifier;
+    }
+
+    static class SpecRunnerWorkload extends Workload {
+        private List<Class<? extends Specification<?>>> specs;
+
+        SpecRunnerWorkload(SpecShape shape) {
+            super(shape);
+        }
+
+        @Override
+        void load() throws Exception {
+            specs = loadSpecs();
+        }
+
+        @Override
+        void run() {
+            final IBehaviorResults results = new IBehaviorResults() {
+                public void expected(Method method) {
+                }
+
+                public void unexpected(Method method, ExpectationFailedException e) {
+                    failures.incrementAndGet();
+                }
+
+                public void error(Method method, Throwable t) {
+                    failures.incrementAndGet();
+                }
+            };
+            for (Class<? extends Specification<?>> spec : specs) {
+                new SpecRunner().run(spec, new ISpecVisitor() {
+                    public void onContext(Context context) {
+                    }
+
+                    public void afterContext(Context context) {
+                    }
+
+                    public void onBehavior(Behavior behavior) {
+                        behavior.run(results);
+                    }
+                });
+            }
+        }
+    }
+
+    static class DescriptionWorkload extends Workload {
+        private List<Class<? extends Specification<?>>> specs;
+
+        DescriptionWorkload(SpecShape shape) {
+            super(shape);
+        }
+
+        @Override
+        void load() throws Exception {
+            specs = loadSpecs();
+        }
+
+        @Override
+        void run() {
+            for (Class<? extends Specification<?>> spec : specs) {
+                DescriptionFactory.create(spec);
+            }
+        }
+    }
+
+    static class JDaveRunnerWorkload extends Workload {
+        private List<Class<? extends Specification<?>>> specs;
+
+        JDaveRunnerWorkload(SpecShape shape) {
+            super(shape);
+        }
+
+        @Override
+        void load() throws Exception {
+            specs = loadSpecs();
+        }
+
+        @Override
+        void run() {
+            RunNotifier notifier = newNotifier();
+            for (Class<? extends Specification<?>> spec : specs) {
+                new JDaveRunner(spec).run(notifier);
+            }
+        }
+    }
+
+    static class GroupDiscoveryWorkload extends Workload {
+        private Class<?> suite;
+
+        GroupDiscoveryWorkload(SpecShape shape) {
+            super(shape);
+        }
+
+        @Override
+        void load() throws Exception {
+            suite = Class.forName(SyntheticSpecs.SUITE);
+        }
+
+        @Override
+        void run() {
+            new JDaveGroupRunner(suite);
+        }
+    }
+
+    static class JUnit4Workload extends Workload {
+        private List<Class<?>> tests;
+
+        JUnit4Workload(SpecShape shape) {
+            super(shape);
+        }
+
+        @Override
+        void load() throws Exception {
+            tests = new ArrayList<Class<?>>();
+            for (int spec = 0; spec < shape.specs; spec++) {
+                for (int context = 0; context < shape.contexts; context++) {
+                    tests.add(Class.forName(SyntheticSpecs.testName(spec, context)));
+                }
+            }
+        }
+
+        @Override
+        void run() throws Exception {
+            RunNotifier notifier = newNotifier();
+            for (Class<?> test : tests) {
+                new BlockJUnit4ClassRunner(test).run(notifier);
+            }
+        }
+    }
+}
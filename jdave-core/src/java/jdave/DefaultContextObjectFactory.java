@@ -18,6 +18,8 @@ package jdave;
 import java.lang.reflect.Method;
 
 import jdave.runner.DefaultSpecIntrospection;
+import jdave.support.ClassCache;
+import jdave.support.Reflection;
 
 /**
  * Default implementation of IContextFactory
@@ -25,13 +27,23 @@ import jdave.runner.DefaultSpecIntrospection;
  * @author Janne Hietam&auml;ki
  */
 public class DefaultContextObjectFactory<T> implements IContextObjectFactory<T> {
+    private static final ClassCache<Method> initializers = new ClassCache<Method>() {
+        @Override
+        protected Method compute(Class<?> contextType) {
+            try {
+                return Reflection.accessible(contextType.getMethod(DefaultSpecIntrospection.INITIALIZER_NAME));
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
     @SuppressWarnings("unchecked")
     public T newContextObject(Object context) throws Exception {
-        try {
-            Method method = context.getClass().getMethod(DefaultSpecIntrospection.INITIALIZER_NAME);
-            return (T) method.invoke(context);
-        } catch (NoSuchMethodException e) {
+        Method method = initializers.get(context.getClass());
+        if (method == null) {
             return null;
         }
+        return (T) method.invoke(context);
     }
 }
@@ -45,7 +45,7 @@ public abstract class Specification<T> extends MockSupport {
     public T context;
     private final List<ILifecycleListener> listeners = new ArrayList<ILifecycleListener>();
     private IContextObjectFactory<T> contextObjectFactory = new DefaultContextObjectFactory<T>();
-    private static IStringComparisonFailure stringComparisonFailure = new ExpectationFailedStringComparisonFailure();
+    private static volatile IStringComparisonFailure stringComparisonFailure = new ExpectationFailedStringComparisonFailure();
 
     public Not<T> not() {
         actualState = false;
@@ -417,8 +417,9 @@ public abstract class Specification<T> extends MockSupport {
      * behaviors to fail if they depend on initial thread local state. Thread
      * locals can be isolated for all behavior methods of current
      * specification by overiding this method and returning <code>true</code>.
-     * Then a new fresh thread is created for all methods in the
-     * specification.
+     * Then all methods in the specification are run in a separate thread
+     * which has no thread local state. Such threads are pooled; their thread
+     * locals are cleared after each behavior.
      * 
      * @return <code>true</code> if thread local isolation is needed for this
      *         specification. The default is <code>false</code>.
@@ -474,6 +475,10 @@ public abstract class Specification<T> extends MockSupport {
         };
     }
 
+    /**
+     * Sets how failed string comparisons are reported, for all
+     * specifications. Safe to call while specifications run on other threads.
+     */
     public static void setStringComparisonFailure(final IStringComparisonFailure failure) {
         stringComparisonFailure = failure;
     }
@@ -17,7 +17,17 @@ package jdave.runner;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import jdave.Group;
 
@@ -25,53 +35,173 @@ import jdave.Group;
  * @author Joni Freeman
  */
 public abstract class AnnotatedSpecScanner {
+    private final Map<String, ClassFileInfo> classFiles = new HashMap<String, ClassFileInfo>();
     private Scanner scanner;
+    private DiscoveryCache discoveryCache;
 
     public AnnotatedSpecScanner(String path) {
         scanner = new Scanner(path);
     }
 
+    /**
+     * Reuses class file information of unchanged class files from given
+     * cache. The cache is not saved by the scanner.
+     */
+    public void setDiscoveryCache(DiscoveryCache discoveryCache) {
+        this.discoveryCache = discoveryCache;
+    }
+
+    /**
+     * Reads the groups of each spec from its class file, so that classes are
+     * not loaded nor initialized just to find out whether they should be run.
+     * Class files which can not be parsed are loaded as before. Class files
+     * are read in parallel, but the handler is called from the calling
+     * thread, in class name order.
+     */
     public void forEach(final IAnnotatedSpecHandler annotatedSpecHandler) {
-        scanner.forEach("class", new IFileHandler() {
-            public void handle(final File file) {
-                Class<?> clazz;
-                try {
-                    clazz = loadClass(file);
-                } catch (FileNotFoundException e) {
-                    throw new RuntimeException("File not found: " + file);
-                }
-                Group groupAnnotation = clazz.getAnnotation(Group.class);
-                String[] groups = groupAnnotation != null ? groupAnnotation.value() : new String[0];
-                if (groups.length == 0) {
-                    if (isInDefaultGroup(clazz.getName(), clazz.getAnnotations())) {
-                        groups = new String[] { Groups.DEFAULT };
-                    }
+        final Queue<ClassFileInfo> scanned = new ConcurrentLinkedQueue<ClassFileInfo>();
+        final Queue<String> unparsed = new ConcurrentLinkedQueue<String>();
+        scanner.forEach("class", new IEntryHandler() {
+            public void handle(ScannedEntry entry) throws IOException {
+                ClassFileInfo classFile = read(entry);
+                if (classFile != null) {
+                    scanned.add(classFile);
+                } else {
+                    unparsed.add(entry.getPath());
                 }
-                if (groups.length > 0) {
-                    annotatedSpecHandler.handle(clazz.getName(), groups);
+            }
+        });
+        List<ClassFileInfo> sorted = new ArrayList<ClassFileInfo>(scanned);
+        Collections.sort(sorted, new Comparator<ClassFileInfo>() {
+            public int compare(ClassFileInfo o1, ClassFileInfo o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        for (ClassFileInfo classFile : sorted) {
+            classFiles.put(classFile.getName(), classFile);
+        }
+        for (ClassFileInfo classFile : sorted) {
+            Object groupValue = classFile.getAnnotationValue(Group.class.getName());
+            String[] groups = groupValue instanceof String[] ? (String[]) groupValue : new String[0];
+            if (groups.length == 0) {
+                if (isInDefaultGroup(classFile)) {
+                    groups = new String[] { Groups.DEFAULT };
                 }
             }
+            if (groups.length > 0) {
+                annotatedSpecHandler.handle(classFile.getName(), groups);
+            }
+        }
+        for (String path : unparsed) {
+            handleLoaded(loadClass(new File(path)), annotatedSpecHandler);
+        }
+    }
 
-            private Class<?> loadClass(File file) throws FileNotFoundException {
+    private ClassFileInfo read(ScannedEntry entry) throws IOException {
+        if (discoveryCache != null) {
+            DiscoveryCache.Entry cached = discoveryCache.get(entry);
+            if (cached != null) {
+                return cached.getClassFile();
+            }
+        }
+        ClassFileInfo classFile;
+        InputStream in = entry.open();
+        try {
+            classFile = ClassFileInfo.read(in);
+        } catch (IllegalArgumentException e) {
+            classFile = null;
+        } finally {
+            in.close();
+        }
+        if (discoveryCache != null) {
+            discoveryCache.put(entry, classFile);
+        }
+        return classFile;
+    }
+
+    private void handleLoaded(Class<?> clazz, IAnnotatedSpecHandler annotatedSpecHandler) {
+        Group groupAnnotation = clazz.getAnnotation(Group.class);
+        String[] groups = groupAnnotation != null ? groupAnnotation.value() : new String[0];
+        if (groups.length == 0) {
+            if (isInDefaultGroup(clazz.getName(), clazz.getAnnotations())) {
+                groups = new String[] { Groups.DEFAULT };
+            }
+        }
+        if (groups.length > 0) {
+            annotatedSpecHandler.handle(clazz.getName(), groups);
+        }
+    }
+
+    private Class<?> loadClass(File file) {
+        try {
+            return loadClassFrom(file);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File not found: " + file);
+        }
+    }
+
+    private Class<?> loadClassFrom(File file) throws FileNotFoundException {
+        try {
+            String cleanedPath = cleanup(file.getPath());
+            return Class.forName(cleanedPath);
+        } catch (Throwable t) {
+            String path = file.getPath();
+            int idx = path.indexOf(File.separatorChar);
+            if (idx == -1) {
+                throw new FileNotFoundException();
+            }
+            path = path.substring(idx + 1);
+            return loadClassFrom(new File(path));
+        }
+    }
+
+    private String cleanup(String path) {
+        return path.replace(".class", "").replace(File.separatorChar, '.');
+    }
+
+    /**
+     * Returns the class file of a scanned class or of a class on the
+     * classpath, or <code>null</code> if it can not be found or parsed.
+     * Useful for walking the superclass chain when looking for inherited
+     * annotations.
+     */
+    protected ClassFileInfo classFileOf(String classname) {
+        if (classFiles.containsKey(classname)) {
+            return classFiles.get(classname);
+        }
+        ClassFileInfo classFile = null;
+        InputStream in = AnnotatedSpecScanner.class.getClassLoader().getResourceAsStream(
+                classname.replace('.', '/') + ".class");
+        if (in != null) {
+            try {
                 try {
-                    String cleanedPath = cleanup(file.getPath());
-                    return Class.forName(cleanedPath);
-                } catch (Throwable t) {
-                    String path = file.getPath();
-                    int idx = path.indexOf(File.separatorChar);
-                    if (idx == -1) {
-                        throw new FileNotFoundException();
-                    }
-                    path = path.substring(idx + 1);
-                    return loadClass(new File(path));
+                    classFile = ClassFileInfo.read(in);
+                } finally {
+                    in.close();
                 }
+            } catch (IOException e) {
+            } catch (IllegalArgumentException e) {
             }
+        }
+        classFiles.put(classname, classFile);
+        return classFile;
+    }
 
-            private String cleanup(String path) {
-                return path.replace(".class", "").replace(File.separatorChar, '.');
-            }
-        });
+    /**
+     * Decides whether a class without a {@link Group} annotation belongs to
+     * the default group. The default implementation loads the class, without
+     * initializing it, and delegates to {@link #isInDefaultGroup(String, Annotation...)};
+     * override to decide from the class file alone.
+     */
+    public boolean isInDefaultGroup(ClassFileInfo classFile) {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(classFile.getName(), false, AnnotatedSpecScanner.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        return isInDefaultGroup(clazz.getName(), clazz.getAnnotations());
     }
-    
+
     public abstract boolean isInDefaultGroup(String classname, Annotation... annotations);
 }
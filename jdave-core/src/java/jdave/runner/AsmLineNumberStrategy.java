@@ -21,6 +21,9 @@ import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
+import jdave.support.ClassCache;
+import jdave.support.IO;
+
 import net.sf.cglib.asm.AnnotationVisitor;
 import net.sf.cglib.asm.Attribute;
 import net.sf.cglib.asm.ClassReader;
@@ -35,34 +38,86 @@ import net.sf.cglib.asm.Opcodes;
  * @since 14.2.2008
  */
 public class AsmLineNumberStrategy implements LineNumberStrategy {
+    /**
+     * System property naming a directory where line numbers of parsed
+     * classes are kept between runs. Unset by default.
+     */
+    public static final String INDEX_DIR = "jdave.runner.index.dir";
+
+    /**
+     * System property giving the maximum number of classes whose line numbers
+     * are kept in memory. Unlimited by default.
+     */
+    public static final String CACHE_SIZE = "jdave.runner.linenumbers.cachesize";
+
+    private final ClassCache<LineNumbers> cache;
+    private final LineNumberIndex index;
+
+    public AsmLineNumberStrategy() {
+        this(LineNumberIndex.fromSystemProperty(), Integer.getInteger(CACHE_SIZE, 0));
+    }
+
+    AsmLineNumberStrategy(LineNumberIndex index) {
+        this(index, 0);
+    }
 
-    private final Map<Class<?>, LineNumberClassVisitor> cache = new HashMap<Class<?>, LineNumberClassVisitor>();
+    AsmLineNumberStrategy(LineNumberIndex index, int cacheSize) {
+        this.index = index;
+        this.cache = new ClassCache<LineNumbers>(cacheSize) {
+            @Override
+            protected LineNumbers compute(Class<?> clazz) {
+                try {
+                    return load(clazz);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error reading class: " + clazz, e);
+                }
+            }
+        };
+    }
 
     public int firstLineNumber(Class<?> clazz, int defaultValue) {
-        int line = analyze(clazz).firstClassLineNumber();
+        int line = analyze(clazz).firstClassLine();
         return line < Integer.MAX_VALUE ? line : defaultValue;
     }
 
     public int firstLineNumber(Method method, int defaultValue) {
-        Integer line = analyze(method.getDeclaringClass()).firstMethodLineNumber(method);
+        Integer line = analyze(method.getDeclaringClass()).firstMethodLine(LineNumbers.keyOf(method));
         return line != null ? line : defaultValue;
     }
 
-    private LineNumberClassVisitor analyze(Class<?> clazz) {
-        LineNumberClassVisitor visitor = cache.get(clazz);
-        if (visitor != null) {
-            return visitor;
+    private LineNumbers analyze(Class<?> clazz) {
+        return cache.get(clazz);
+    }
+
+    private LineNumbers load(Class<?> clazz) throws IOException {
+        byte[] classFile = read(clazz);
+        if (index == null) {
+            return parse(classFile);
+        }
+        String hash = LineNumberIndex.hash(classFile);
+        LineNumbers lineNumbers = index.get(clazz.getName(), hash);
+        if (lineNumbers == null) {
+            lineNumbers = parse(classFile);
+            index.put(clazz.getName(), hash, lineNumbers);
+        }
+        return lineNumbers;
+    }
+
+    private static LineNumbers parse(byte[] classFile) {
+        LineNumberClassVisitor visitor = new LineNumberClassVisitor();
+        new ClassReader(classFile).accept(visitor, 0);
+        return visitor.lineNumbers();
+    }
+
+    private static byte[] read(Class<?> clazz) throws IOException {
+        InputStream classAsStream = toStream(clazz);
+        if (classAsStream == null) {
+            throw new IOException("Class not found");
         }
         try {
-            InputStream classAsStream = toStream(clazz);
-            ClassReader reader = new ClassReader(classAsStream);
-            visitor = new LineNumberClassVisitor();
-            reader.accept(visitor, 0);
+            return IO.readBytes(classAsStream);
+        } finally {
             classAsStream.close();
-            cache.put(clazz, visitor);
-            return visitor;
-        } catch (IOException e) {
-            throw new RuntimeException("Error reading class: " + clazz, e);
         }
     }
 
@@ -89,7 +144,7 @@ public class AsmLineNumberStrategy implements LineNumberStrategy {
             if ((access & Opcodes.ACC_PUBLIC) == 0) {
                 return null;
             }
-            nextMethod = name;
+            nextMethod = name + desc;
             return codeVisitor;
         }
 
@@ -101,13 +156,8 @@ public class AsmLineNumberStrategy implements LineNumberStrategy {
             }
         }
 
-        public Integer firstMethodLineNumber(Method method) {
-            // TODO: does not handle public overloaded methods properly - ignores method parameters
-            return methodLines.get(method.getName());
-        }
-
-        public int firstClassLineNumber() {
-            return minLine;
+        public LineNumbers lineNumbers() {
+            return new LineNumbers(minLine, methodLines);
         }
     }
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdave.support.IO;
+
+import net.sf.cglib.asm.AnnotationVisitor;
+import net.sf.cglib.asm.Attribute;
+import net.sf.cglib.asm.ClassReader;
+import net.sf.cglib.asm.ClassVisitor;
+import net.sf.cglib.asm.FieldVisitor;
+import net.sf.cglib.asm.MethodVisitor;
+import net.sf.cglib.asm.Type;
+
+/**
+ * The name, superclass and runtime visible class annotations of a class, read
+ * from its class file without loading the class.
+ */
+public class ClassFileInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String name;
+    private final String superclassName;
+    private final Map<String, Object> annotations;
+
+    private ClassFileInfo(String name, String superclassName, Map<String, Object> annotations) {
+        this.name = name;
+        this.superclassName = superclassName;
+        this.annotations = annotations;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class file can not be parsed,
+     * for example because it uses constant pool entries newer than the ASM
+     * version bundled with cglib
+     */
+    public static ClassFileInfo read(byte[] classFile) {
+        try {
+            InfoVisitor visitor = new InfoVisitor();
+            new ClassReader(classFile).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG
+                    | ClassReader.SKIP_FRAMES);
+            return new ClassFileInfo(visitor.name, visitor.superclassName, visitor.annotations);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Can not parse class file", e);
+        }
+    }
+
+    /**
+     * Reads the class file from given stream, leaving the stream open.
+     *
+     * @see #read(byte[])
+     */
+    public static ClassFileInfo read(InputStream in) throws IOException {
+        return read(IO.readBytes(in));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the superclass name or <code>null</code> for
+     * <code>java.lang.Object</code> and interfaces without one
+     */
+    public String getSuperclassName() {
+        return superclassName;
+    }
+
+    public boolean isAnnotationPresent(String annotationType) {
+        return annotations.containsKey(annotationType);
+    }
+
+    /**
+     * @return the <code>value</code> element of given annotation: a
+     * <code>String</code> for strings and classes, given as class names, a
+     * <code>String[]</code> for arrays, or <code>null</code> if the
+     * annotation or its value element is not present
+     */
+    public Object getAnnotationValue(String annotationType) {
+        return annotations.get(annotationType);
+    }
+
+    private static String className(String internalName) {
+        return internalName == null ? null : internalName.replace('/', '.');
+    }
+
+    private static Object value(Object value) {
+        return value instanceof Type ? ((Type) value).getClassName() : value;
+    }
+
+    private static class InfoVisitor implements ClassVisitor {
+        private final Map<String, Object> annotations = new HashMap<String, Object>();
+        private String name;
+        private String superclassName;
+
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            this.name = className(name);
+            this.superclassName = className(superName);
+        }
+
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            if (!visible) {
+                return null;
+            }
+            final String annotationType = Type.getType(desc).getClassName();
+            annotations.put(annotationType, null);
+            return new ValueVisitor() {
+                @Override
+                void value(String name, Object value) {
+                    if ("value".equals(name)) {
+                        annotations.put(annotationType, value);
+                    }
+                }
+            };
+        }
+
+        public void visitSource(String source, String debug) {
+        }
+
+        public void visitOuterClass(String owner, String name, String desc) {
+        }
+
+        public void visitAttribute(Attribute attr) {
+        }
+
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+        }
+
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+            return null;
+        }
+
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                String[] exceptions) {
+            return null;
+        }
+
+        public void visitEnd() {
+        }
+    }
+
+    /**
+     * Collects simple values and arrays of simple values. Nested annotations
+     * and enums are ignored.
+     */
+    private static abstract class ValueVisitor implements AnnotationVisitor {
+        abstract void value(String name, Object value);
+
+        public void visit(String name, Object value) {
+            value(name, ClassFileInfo.value(value));
+        }
+
+        public AnnotationVisitor visitArray(final String name) {
+            final ValueVisitor outer = this;
+            return new ValueVisitor() {
+                private final List<String> values = new ArrayList<String>();
+
+                @Override
+                void value(String ignored, Object value) {
+                    values.add(String.valueOf(value));
+                }
+
+                @Override
+                public void visitEnd() {
+                    outer.value(name, values.toArray(new String[values.size()]));
+                }
+            };
+        }
+
+        public void visitEnum(String name, String desc, String value) {
+        }
+
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            return null;
+        }
+
+        public void visitEnd() {
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " extends " + superclassName + " " + annotations.keySet();
+    }
+}
@@ -17,7 +17,6 @@ package jdave.runner;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 import jdave.Specification;
@@ -29,64 +28,52 @@ import jdave.Specification;
 public abstract class Context {
     private final Class<? extends Specification<?>> specType;
     private final Class<?> contextType;
+    private final ContextModel model;
 
     public Context(final Class<? extends Specification<?>> specType, final Class<?> contextType) {
         this.specType = specType;
         this.contextType = contextType;
+        this.model = SpecModel.of(specType).getContext(contextType);
+    }
+
+    public Context(final SpecModel spec, final ContextModel model) {
+        this.specType = spec.getSpecType();
+        this.contextType = model.getContextType();
+        this.model = model;
     }
 
     public String getName() {
         return contextType.getSimpleName();
     }
 
-    protected abstract Behavior newBehavior(Method method,
-            Class<? extends Specification<?>> specType, Class<?> contextType);
-
-    void run(final ISpecVisitor callback) {
-        for (final Method method : ClassMemberSorter.getMethods(contextType)) {
-            if (isBehavior(method)) {
-                callback.onBehavior(newBehavior(method, specType, contextType));
-            }
-        }
+    ContextModel getModel() {
+        return model;
     }
 
-    private boolean isBehavior(final Method method) {
-        return newIntrospection().isBehavior(method);
+    Class<? extends Specification<?>> getSpecType() {
+        return specType;
     }
 
-    public boolean isContextClass() {
-        return newIntrospection().isContextClass(specType, contextType);
-    }
+    protected abstract Behavior newBehavior(Method method,
+            Class<? extends Specification<?>> specType, Class<?> contextType);
 
-    private ISpecIntrospection newIntrospection() {
-        try {
-            Class<?> clazz = specType;
-            do {
-                final Collection<Class<?>> types = typesOf(clazz);
-                for (final Class<?> type : types) {
-                    if (hasStrategy(type)) {
-                        return type.getAnnotation(IntrospectionStrategy.class).value()
-                                .newInstance();
-                    }
-                }
-            } while ((clazz = clazz.getSuperclass()) != null);
-        } catch (final Exception e) {
-            throw new RuntimeException(e);
+    void run(final ISpecVisitor callback) {
+        for (final Behavior behavior : getBehaviors()) {
+            callback.onBehavior(behavior);
         }
-        return new DefaultSpecIntrospection();
     }
 
-    private Collection<Class<?>> typesOf(final Class<?> clazz) {
-        final List<Class<?>> types = new ArrayList<Class<?>>();
-        types.add(clazz);
-        final Class<?>[] interfaces = clazz.getInterfaces();
-        for (final Class<?> anInterface : interfaces) {
-            types.add(anInterface);
+    List<Behavior> getBehaviors() {
+        final List<Behavior> behaviors = new ArrayList<Behavior>();
+        if (model != null) {
+            for (final Method method : model.getBehaviors()) {
+                behaviors.add(newBehavior(method, specType, contextType));
+            }
         }
-        return types;
+        return behaviors;
     }
 
-    boolean hasStrategy(final Class<?> type) {
-        return type.isAnnotationPresent(IntrospectionStrategy.class);
+    public boolean isContextClass() {
+        return model != null;
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+import jdave.support.Reflection;
+
+/**
+ * The resolved members of a context: its behaviors in declaration order and
+ * the constructor and disposer used when running them. Members are made
+ * accessible once, so invoking them does not repeat access checks.
+ *
+ * @see SpecModel
+ */
+public final class ContextModel {
+    private final Class<?> contextType;
+    private final List<Method> behaviors;
+    private final Constructor<?> constructor;
+    private final Method disposer;
+
+    ContextModel(Class<?> contextType, List<Method> behaviors) {
+        this.contextType = contextType;
+        this.behaviors = Collections.unmodifiableList(behaviors);
+        this.constructor = constructorOf(contextType);
+        this.disposer = disposerOf(contextType);
+    }
+
+    public Class<?> getContextType() {
+        return contextType;
+    }
+
+    public String getName() {
+        return contextType.getSimpleName();
+    }
+
+    public List<Method> getBehaviors() {
+        return behaviors;
+    }
+
+    /**
+     * @return the constructor which takes the enclosing specification
+     */
+    public Constructor<?> getConstructor() throws NoSuchMethodException {
+        if (constructor == null) {
+            throw new NoSuchMethodException(contextType.getName() + ".<init>("
+                    + contextType.getEnclosingClass() + ")");
+        }
+        return constructor;
+    }
+
+    /**
+     * @return the public <code>destroy</code> method or <code>null</code> if
+     *         the context has none
+     */
+    public Method getDisposer() {
+        return disposer;
+    }
+
+    private static Constructor<?> constructorOf(Class<?> contextType) {
+        try {
+            return Reflection.accessible(contextType.getDeclaredConstructor(contextType.getEnclosingClass()));
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Method disposerOf(Class<?> contextType) {
+        try {
+            return Reflection.accessible(contextType.getMethod(DefaultSpecIntrospection.DISPOSER_NAME));
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers the class file information of scanned class files between runs,
+ * keyed by their location, modification time and size, so that only changed
+ * class files are read again. Enabled by setting
+ * <code>jdave.runner.discovery.cache</code> to the file to store the cache
+ * in.
+ * <p>
+ * Only class file information is cached. Group membership is resolved from
+ * it on every run, because a spec inherits its groups from superclasses
+ * which may have changed in other class files. Description trees are built
+ * on every run as well: they depend on the context classes, and the spec
+ * class has to be loaded to run it anyway.
+ */
+public class DiscoveryCache {
+    public static final String FILE = "jdave.runner.discovery.cache";
+    private static final int VERSION = 1;
+    private final SerializedFile file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Loads the cache from given file. A missing, unreadable or incompatible
+     * file gives an empty cache.
+     */
+    @SuppressWarnings("unchecked")
+    public DiscoveryCache(File file) {
+        this.file = new SerializedFile(file, VERSION);
+        Map<String, Entry> saved = (Map<String, Entry>) this.file.read();
+        if (saved != null) {
+            entries.putAll(saved);
+        }
+    }
+
+    /**
+     * @return the cache given by the <code>jdave.runner.discovery.cache</code>
+     * system property, or <code>null</code> if it is not set
+     */
+    public static DiscoveryCache fromSystemProperty() {
+        String file = System.getProperty(FILE);
+        return file != null ? new DiscoveryCache(new File(file)) : null;
+    }
+
+    /**
+     * @return the cached entry if the scanned entry has not changed since it
+     * was cached, otherwise <code>null</code>
+     */
+    Entry get(ScannedEntry scanned) {
+        Entry entry = entries.get(scanned.getLocation());
+        if (entry != null && entry.lastModified == scanned.lastModified() && entry.size == scanned.size()) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * @param classFile <code>null</code> if the class file could not be parsed
+     */
+    void put(ScannedEntry scanned, ClassFileInfo classFile) {
+        entries.put(scanned.getLocation(), new Entry(scanned.lastModified(), scanned.size(), classFile));
+    }
+
+    int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Writes the cache, leaving out entries whose file or jar no longer
+     * exists. The cache is written to a temporary file first, so that
+     * concurrent runs never see a partially written cache. A cache which can
+     * not be written is left as it is.
+     */
+    public void save() {
+        HashMap<String, Entry> existing = new HashMap<String, Entry>(entries);
+        for (Iterator<String> i = existing.keySet().iterator(); i.hasNext();) {
+            String location = i.next();
+            int separator = location.indexOf("!/");
+            if (!new File(separator != -1 ? location.substring(0, separator) : location).exists()) {
+                i.remove();
+            }
+        }
+        try {
+            file.write(existing);
+        } catch (IOException e) {
+            // the cache is only an optimization
+        }
+    }
+
+    static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long lastModified;
+        private final long size;
+        private final ClassFileInfo classFile;
+
+        Entry(long lastModified, long size, ClassFileInfo classFile) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.classFile = classFile;
+        }
+
+        /**
+         * @return <code>null</code> if the class file could not be parsed
+         */
+        ClassFileInfo getClassFile() {
+            return classFile;
+        }
+    }
+}
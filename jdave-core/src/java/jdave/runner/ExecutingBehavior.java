@@ -15,14 +15,9 @@
  */
 package jdave.runner;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
+import java.util.Collections;
 
 import jdave.ExpectationFailedException;
 import jdave.Specification;
@@ -33,10 +28,17 @@ import jdave.util.Fields;
  * @author Pekka Enberg
  */
 public class ExecutingBehavior extends Behavior {
+    /**
+     * How long a behavior on an isolated thread may keep running after its
+     * timeout before it is abandoned.
+     */
+    private static final long GRACE_PERIOD = 1000;
     private final Class<?> contextType;
     private final Class<? extends Specification<?>> specType;
     private Object context;
     private final MethodInvoker invoker;
+    private final ITracer tracer = Tracing.getTracer();
+    private IPhaseListener phaseListener;
 
     public ExecutingBehavior(Method method, Class<? extends Specification<?>> specType, Class<?> contextType,
                              MethodInvoker invoker) {
@@ -59,7 +61,7 @@ public class ExecutingBehavior extends Behavior {
     public void run(final IBehaviorResults results) {
         try {
             Specification<?> spec = newSpecification();
-            if (spec.needsThreadLocalIsolation()) {
+            if (spec.needsThreadLocalIsolation() || timeout() > 0) {
                 runInNewThread(results, spec);
             } else {
                 runInCurrentThread(results, spec);
@@ -74,55 +76,140 @@ public class ExecutingBehavior extends Behavior {
     }
 
     private void runInNewThread(final IBehaviorResults results, final Specification<?> spec) {
-        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
-            public Thread newThread(Runnable r) {
-                return new Thread(r);
-            }
-        });
-        executor.submit(new Callable<Void>() {
-            public Void call() throws Exception {
-                runSpec(results, spec);
-                return null;
-            }
-        });
-        executor.shutdown();
+        long timeout = timeout();
+        final AbandonableResults abandonable = timeout > 0 ? new AbandonableResults(results) : null;
         try {
-            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            boolean finished = IsolatedThreads.getInstance().run(new Runnable() {
+                public void run() {
+                    runSpec(abandonable != null ? abandonable : results, spec);
+                }
+            }, timeout > 0 ? timeout + GRACE_PERIOD : 0);
+            if (!finished) {
+                abandonable.abandon();
+                results.error(method, new BehaviorTimeoutException(contextType.getName() + "." + method.getName()
+                        + " did not stop within " + GRACE_PERIOD + " ms after its timeout of " + timeout + " ms"));
+            }
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
     }
 
     private void runSpec(IBehaviorResults results, Specification<?> spec) {
-        boolean error = false;
+        Object event = tracer.begin(Trace.BEHAVIOR);
+        String outcome = "expected";
+        if (results instanceof IPhaseListener) {
+            phaseListener = (IPhaseListener) results;
+        }
         try {
-            spec.create();
-            context = newContext(spec);
-            invoker.invokeMethod(method, spec, context);
-            spec.verifyMocks();
-            results.expected(method);
-        } catch (InvocationTargetException e) {
-            error = true;
-            if (e.getCause().getClass().equals(ExpectationFailedException.class)) {
-                results.unexpected(method, (ExpectationFailedException) e.getCause());
-            } else {
-                results.error(method, e.getCause());
-            }
-        } catch (ExpectationFailedException e) {
-            error = true;
-            results.unexpected(method, e);
-        } catch (Throwable t) {
-            error = true;
-            results.error(method, t);
-        } finally {
             try {
-                destroy(spec);
-            } catch (Throwable e) {
-                // Do not mask the first error.
-                if (!error) {
-                    throw new RuntimeException(e);
+                Watchdog.Watch watch = watch();
+                try {
+                    PhaseSpan span = startPhase();
+                    try {
+                        spec.create();
+                    } finally {
+                        endPhase(span, Phase.SPEC_CREATE);
+                    }
+                    context = newContext(spec);
+                    span = startPhase();
+                    try {
+                        invoker.invokeMethod(method, spec, context);
+                    } finally {
+                        endPhase(span, Phase.BEHAVIOR);
+                    }
+                    span = startPhase();
+                    try {
+                        spec.verifyMocks();
+                    } finally {
+                        endPhase(span, Phase.VERIFY_MOCKS);
+                    }
+                } catch (Throwable t) {
+                    throw timedOut(watch) ? watch.getFailure() : t;
+                } finally {
+                    if (watch != null) {
+                        watch.cancel();
+                    }
+                }
+                if (timedOut(watch)) {
+                    throw watch.getFailure();
+                }
+                results.expected(method);
+            } catch (InvocationTargetException e) {
+                if (e.getCause().getClass().equals(ExpectationFailedException.class)) {
+                    outcome = "unexpected";
+                    results.unexpected(method, (ExpectationFailedException) e.getCause());
+                } else {
+                    outcome = "error";
+                    results.error(method, e.getCause());
+                }
+            } catch (ExpectationFailedException e) {
+                outcome = "unexpected";
+                results.unexpected(method, e);
+            } catch (Throwable t) {
+                outcome = "error";
+                results.error(method, t);
+            } finally {
+                try {
+                    PhaseSpan span = startPhase();
+                    try {
+                        destroy(spec);
+                    } finally {
+                        endPhase(span, Phase.DESTROY);
+                    }
+                } catch (Throwable e) {
+                    // Do not mask the first error.
+                    if (outcome.equals("expected")) {
+                        outcome = "error";
+                        throw new RuntimeException(e);
+                    }
                 }
             }
+        } finally {
+            if (event != null) {
+                tracer.end(event, specType.getName(), contextType.getSimpleName(), method.getName(), outcome);
+            }
+        }
+    }
+
+    private Watchdog.Watch watch() {
+        long timeout = timeout();
+        return timeout > 0 ? Watchdog.getInstance().watch(contextType.getName() + "." + method.getName(), timeout)
+                : null;
+    }
+
+    private static boolean timedOut(Watchdog.Watch watch) {
+        return watch != null && watch.getFailure() != null;
+    }
+
+    private long timeout() {
+        Timeout timeout = method.getAnnotation(Timeout.class);
+        if (timeout == null) {
+            timeout = contextType.getAnnotation(Timeout.class);
+        }
+        if (timeout == null) {
+            timeout = specType.getAnnotation(Timeout.class);
+        }
+        return timeout != null ? timeout.value() : Long.getLong(SpecRunner.TIMEOUT, 0);
+    }
+
+    private PhaseSpan startPhase() {
+        Object event = tracer.begin(Trace.PHASE);
+        if (event == null && phaseListener == null) {
+            return null;
+        }
+        return new PhaseSpan(event, phaseListener != null ? System.nanoTime() : 0);
+    }
+
+    private void endPhase(PhaseSpan span, Phase phase) {
+        if (span == null) {
+            return;
+        }
+        if (phaseListener != null) {
+            phaseListener.phase(contextType, method, phase, System.nanoTime() - span.start);
+        }
+        if (span.event != null) {
+            tracer.end(span.event, specType.getName(), contextType.getSimpleName(), method.getName(),
+                    phase.getName());
         }
     }
 
@@ -147,12 +234,23 @@ public class ExecutingBehavior extends Behavior {
     }
 
     protected Object newContext(Specification<?> spec) throws Exception {
-        Object context = newContextInstance(spec);
-        spec.fireAfterContextInstantiation(context);
-        Object contextObject = spec.getContextObjectFactory().newContextObject(context);
-        Fields.set(spec, "be", contextObject);
-        Fields.set(spec, "context", contextObject);
-        spec.fireAfterContextCreation(context, contextObject);
+        Object context;
+        PhaseSpan span = startPhase();
+        try {
+            context = newContextInstance(spec);
+            spec.fireAfterContextInstantiation(context);
+        } finally {
+            endPhase(span, Phase.CONTEXT_INSTANTIATION);
+        }
+        span = startPhase();
+        try {
+            Object contextObject = spec.getContextObjectFactory().newContextObject(context);
+            Fields.set(spec, "be", contextObject);
+            Fields.set(spec, "context", contextObject);
+            spec.fireAfterContextCreation(context, contextObject);
+        } finally {
+            endPhase(span, Phase.CONTEXT_OBJECT_CREATION);
+        }
         return context;
     }
 
@@ -164,20 +262,78 @@ public class ExecutingBehavior extends Behavior {
 
     private Object newContextInstance(Specification<?> spec) {
         try {
-            Constructor<?> constructor = contextType.getDeclaredConstructor(contextType.getEnclosingClass());
-            return constructor.newInstance(spec);
+            return contextModel().getConstructor().newInstance(spec);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     private void invokeDisposer(Object context) throws Exception {
-        Method method;
-        try {
-            method = context.getClass().getMethod(DefaultSpecIntrospection.DISPOSER_NAME);
+        Method method = contextModel(context.getClass()).getDisposer();
+        if (method != null) {
             method.invoke(context);
-        } catch (NoSuchMethodException e) {
-            // destroy method is not required
+        }
+    }
+
+    private ContextModel contextModel() {
+        return contextModel(contextType);
+    }
+
+    private ContextModel contextModel(Class<?> type) {
+        ContextModel model = SpecModel.of(specType).getContext(type);
+        return model != null ? model : new ContextModel(type, Collections.<Method> emptyList());
+    }
+
+    /**
+     * The trace event and start time of a running phase.
+     */
+    private static class PhaseSpan {
+        final Object event;
+        final long start;
+
+        PhaseSpan(Object event, long start) {
+            this.event = event;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Drops the results of a behavior after it has been abandoned.
+     */
+    private static class AbandonableResults implements IBehaviorResults, IPhaseListener {
+        private final IBehaviorResults results;
+        private volatile boolean abandoned;
+
+        AbandonableResults(IBehaviorResults results) {
+            this.results = results;
+        }
+
+        void abandon() {
+            abandoned = true;
+        }
+
+        public void expected(Method method) {
+            if (!abandoned) {
+                results.expected(method);
+            }
+        }
+
+        public void unexpected(Method method, ExpectationFailedException e) {
+            if (!abandoned) {
+                results.unexpected(method, e);
+            }
+        }
+
+        public void error(Method method, Throwable t) {
+            if (!abandoned) {
+                results.error(method, t);
+            }
+        }
+
+        public void phase(Class<?> contextType, Method method, Phase phase, long nanos) {
+            if (!abandoned && results instanceof IPhaseListener) {
+                ((IPhaseListener) results).phase(contextType, method, phase, nanos);
+            }
         }
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the last duration and outcome of each behavior between runs,
+ * keyed by spec, context and behavior, so that runs can start the longest
+ * specs first and, optionally, previously failed specs before them. Enabled
+ * by setting <code>jdave.runner.history</code> to the file to store the
+ * history in, and <code>jdave.runner.history.failedfirst</code> to
+ * <code>true</code> to run failed specs first. Specs are the unit of
+ * ordering: a spec with a failed behavior runs first as a whole, and its
+ * behaviors keep their usual order.
+ * <p>
+ * When a spec is recorded, the behaviors it had in the previous history are
+ * replaced, so behaviors which no longer exist are forgotten.
+ */
+public class History {
+    public static final String FILE = "jdave.runner.history";
+    public static final String FAILED_FIRST = "jdave.runner.history.failedfirst";
+    private static final int VERSION = 1;
+    private final SerializedFile file;
+    private final Map<String, Map<String, Entry>> specs = new ConcurrentHashMap<String, Map<String, Entry>>();
+    private final Set<String> recorded = new HashSet<String>();
+
+    /**
+     * Loads the history from given file. A missing, unreadable or
+     * incompatible file gives an empty history.
+     */
+    @SuppressWarnings("unchecked")
+    public History(File file) {
+        this.file = new SerializedFile(file, VERSION);
+        Map<String, Map<String, Entry>> saved = (Map<String, Map<String, Entry>>) this.file.read();
+        if (saved != null) {
+            for (Map.Entry<String, Map<String, Entry>> spec : saved.entrySet()) {
+                specs.put(spec.getKey(), new ConcurrentHashMap<String, Entry>(spec.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return the history given by the <code>jdave.runner.history</code>
+     * system property, or <code>null</code> if it is not set
+     */
+    public static History fromSystemProperty() {
+        String file = System.getProperty(FILE);
+        return file != null ? new History(new File(file)) : null;
+    }
+
+    /**
+     * @param duration the duration of the behavior in milliseconds
+     */
+    public void record(String spec, String context, String behavior, long duration, boolean failed) {
+        Map<String, Entry> behaviors;
+        synchronized (recorded) {
+            if (recorded.add(spec)) {
+                specs.put(spec, new ConcurrentHashMap<String, Entry>());
+            }
+            behaviors = specs.get(spec);
+        }
+        behaviors.put(context + "." + behavior, new Entry(duration, failed));
+    }
+
+    /**
+     * @return the last duration of given behavior in milliseconds, or -1 if
+     * it is not known
+     */
+    public long durationOf(String spec, String context, String behavior) {
+        Entry entry = entryOf(spec, context, behavior);
+        return entry != null ? entry.duration : -1;
+    }
+
+    public boolean hasFailed(String spec, String context, String behavior) {
+        Entry entry = entryOf(spec, context, behavior);
+        return entry != null && entry.failed;
+    }
+
+    private Entry entryOf(String spec, String context, String behavior) {
+        Map<String, Entry> behaviors = specs.get(spec);
+        return behaviors != null ? behaviors.get(context + "." + behavior) : null;
+    }
+
+    /**
+     * @return <code>true</code> if any behavior of given spec failed on its
+     * last run
+     */
+    public boolean hasFailed(String spec) {
+        Map<String, Entry> behaviors = specs.get(spec);
+        if (behaviors != null) {
+            for (Entry entry : behaviors.values()) {
+                if (entry.failed) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the sum of the last durations of the behaviors of each spec in
+     * milliseconds, by spec class name
+     */
+    public Map<String, Long> getSpecDurations() {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        for (Map.Entry<String, Map<String, Entry>> spec : specs.entrySet()) {
+            long duration = 0;
+            for (Entry entry : spec.getValue().values()) {
+                duration += entry.duration;
+            }
+            durations.put(spec.getKey(), duration);
+        }
+        return durations;
+    }
+
+    /**
+     * Orders specs longest first, estimating the duration of specs without
+     * history like {@link Shard} does.
+     *
+     * @param behaviors the number of behaviors of every spec to order, by spec
+     * class name
+     * @param failedFirst whether specs which failed on their last run come
+     * first
+     */
+    public List<String> order(Map<String, Integer> behaviors, final boolean failedFirst) {
+        final Map<String, Double> weights = Shard.weigh(behaviors, getSpecDurations());
+        List<String> ordered = new ArrayList<String>(behaviors.keySet());
+        Collections.sort(ordered, new Comparator<String>() {
+            public int compare(String spec1, String spec2) {
+                if (failedFirst && hasFailed(spec1) != hasFailed(spec2)) {
+                    return hasFailed(spec1) ? -1 : 1;
+                }
+                int byWeight = weights.get(spec2).compareTo(weights.get(spec1));
+                return byWeight != 0 ? byWeight : spec1.compareTo(spec2);
+            }
+        });
+        return ordered;
+    }
+
+    /**
+     * Writes the history to a temporary file first, so that concurrent runs
+     * never see a partially written history.
+     */
+    public void save() {
+        HashMap<String, Map<String, Entry>> copy = new HashMap<String, Map<String, Entry>>();
+        for (Map.Entry<String, Map<String, Entry>> spec : specs.entrySet()) {
+            copy.put(spec.getKey(), new HashMap<String, Entry>(spec.getValue()));
+        }
+        try {
+            file.write(copy);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not save history", e);
+        }
+    }
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long duration;
+        private final boolean failed;
+
+        Entry(long duration, boolean failed) {
+            this.duration = duration;
+            this.failed = failed;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Method;
+
+/**
+ * Receives the time spent in each phase of a behavior run. An
+ * {@link IBehaviorResults} which also implements this interface is notified
+ * once for each phase that is run, including the one which fails, before the
+ * result of the behavior is reported. {@link Phase#DESTROY} is reported last,
+ * after the result.
+ */
+public interface IPhaseListener {
+    void phase(Class<?> contextType, Method method, Phase phase, long nanos);
+}
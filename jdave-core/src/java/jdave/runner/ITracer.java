@@ -0,0 +1,40 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+/**
+ * Records the spec lifecycle, for example as profiler events. The runner
+ * calls {@link #begin(Trace)} when a span starts and passes the returned
+ * event to {@link #end(Object, String, String, String, String)} when it
+ * completes. A <code>null</code> event means that the span is not recorded
+ * and <code>end</code> is not called. Spans which end in an exception
+ * thrown by the runner itself are not ended.
+ *
+ * @see Tracing
+ */
+public interface ITracer {
+    Object begin(Trace trace);
+    
+    /**
+     * @param context the simple name of the context, or <code>null</code> for
+     * spans outside of a context
+     * @param behavior the name of the behavior, or <code>null</code> for spans
+     * outside of a behavior
+     * @param detail the outcome of a behavior, the name of a phase or the
+     * suffix of a specdox format, see {@link Trace}
+     */
+    void end(Object event, String spec, String context, String behavior, String detail);
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs behaviors of specifications which need thread local isolation.
+ * <p>
+ * Threads are pooled and their thread local maps (including inheritable
+ * thread locals) are cleared before and after every behavior, so each
+ * behavior starts without any thread local state, not even the inheritable
+ * thread locals of the thread which started the pool thread. In virtual
+ * thread mode (see {@link VirtualThreads}) every behavior gets a new virtual
+ * thread.
+ * <p>
+ * Clearing the maps needs reflective access to <code>java.lang.Thread</code>.
+ * On JDK 16 and later this requires
+ * <code>--add-opens java.base/java.lang=ALL-UNNAMED</code>; without it, or
+ * when system property {@link #POOL} is <code>false</code>, a new thread is
+ * started for each behavior instead. Such a thread inherits the inheritable
+ * thread locals of the runner thread, as before pooling. The cost of either
+ * mode can be compared with the runner benchmark of jdave-benchmarks.
+ */
+final class IsolatedThreads {
+    static final String POOL = "jdave.runner.isolation.pool";
+    private static final IsolatedThreads INSTANCE = new IsolatedThreads();
+
+    private final Field threadLocals = threadField("threadLocals");
+    private final Field inheritableThreadLocals = threadField("inheritableThreadLocals");
+    private final Executor executor;
+    private final Executor virtualThreadPerTask;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    IsolatedThreads() {
+        boolean pool = Boolean.parseBoolean(System.getProperty(POOL, "true"));
+        executor = pool && canClearThreadLocals() ? newPool() : newThreadPerTask(new IsolatedThreadFactory());
+        virtualThreadPerTask = VirtualThreads.isSupported() ? newThreadPerTask(VirtualThreads.factory()) : null;
+    }
+
+    static IsolatedThreads getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param timeout milliseconds to wait for the behavior, or zero to wait
+     * until it finishes
+     * @return <code>false</code> if the behavior did not finish in time, in
+     * which case its thread is interrupted and left to finish on its own
+     */
+    boolean run(final Runnable behavior, long timeout) throws InterruptedException {
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            public Void call() {
+                behavior.run();
+                return null;
+            }
+        });
+        if (VirtualThreads.isEnabled()) {
+            virtualThreadPerTask.execute(task);
+        } else {
+            executor.execute(task);
+        }
+        try {
+            if (timeout > 0) {
+                task.get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                task.get();
+            }
+            return true;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            return false;
+        }
+    }
+
+    boolean canClearThreadLocals() {
+        return threadLocals != null && inheritableThreadLocals != null;
+    }
+
+    private ExecutorService newPool() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new IsolatedThreadFactory()) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                clearThreadLocals(t);
+            }
+
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                clearThreadLocals(Thread.currentThread());
+            }
+        };
+    }
+
+    private Executor newThreadPerTask(final ThreadFactory factory) {
+        return new Executor() {
+            public void execute(Runnable command) {
+                factory.newThread(command).start();
+            }
+        };
+    }
+
+    private void clearThreadLocals(Thread thread) {
+        try {
+            threadLocals.set(thread, null);
+            inheritableThreadLocals.set(thread, null);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Field threadField(String name) {
+        try {
+            Field field = Thread.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private class IsolatedThreadFactory implements ThreadFactory {
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jdave-isolated-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class loader which loads JDave classes, and classes from class
+ * directories such as compiled specs, itself instead of asking its parent
+ * first. Each instance thus has its own copies of their static state, while
+ * the JDK and libraries in jars are shared through the parent.
+ */
+public class IsolatingClassLoader extends URLClassLoader {
+    /**
+     * Isolates classes from the class path of given parent.
+     */
+    public IsolatingClassLoader(ClassLoader parent) {
+        this(classPathOf(parent), parent);
+    }
+
+    public IsolatingClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isIsolated(name)) {
+            return super.loadClass(name, resolve);
+        }
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded == null) {
+            loaded = findClass(name);
+        }
+        if (resolve) {
+            resolveClass(loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * @return <code>true</code> if given class is a JDave class or comes from
+     * a class directory of this loader
+     */
+    protected boolean isIsolated(String classname) {
+        if (classname.startsWith("java.")) {
+            return false;
+        }
+        URL url = findResource(classname.replace('.', '/') + ".class");
+        if (url == null) {
+            return false;
+        }
+        return classname.startsWith("jdave.") || url.getProtocol().equals("file");
+    }
+
+    private static URL[] classPathOf(ClassLoader parent) {
+        if (parent instanceof URLClassLoader) {
+            return ((URLClassLoader) parent).getURLs();
+        }
+        List<URL> urls = new ArrayList<URL>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            try {
+                urls.add(new File(path).toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdave.support.IO;
+
+/**
+ * A persistent index of the line numbers of class files, so that classes
+ * which have not changed since the previous run need not be parsed again.
+ * Entries are keyed by class name and the MD5 hash of the class file.
+ * <p>
+ * The index file is read when first needed and written back at exit if new
+ * classes were parsed. Runs sharing the index, such as forked workers, merge
+ * their entries into the file. Entries which have not been used for
+ * {@link #MAX_AGE_DAYS} days, e.g. of deleted classes, are dropped.
+ */
+class LineNumberIndex {
+    static final String FILENAME = "line-numbers.index";
+    static final int MAX_AGE_DAYS = 30;
+    static final String HEADER = "# jdave line number index 3";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final int today = (int) (System.currentTimeMillis() / DAY);
+    private boolean loaded;
+    private boolean dirty;
+
+    LineNumberIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the index in the directory given by system property
+     *         {@link AsmLineNumberStrategy#INDEX_DIR} or <code>null</code> if
+     *         the property is not set
+     */
+    static LineNumberIndex fromSystemProperty() {
+        String dir = System.getProperty(AsmLineNumberStrategy.INDEX_DIR);
+        if (dir == null) {
+            return null;
+        }
+        final LineNumberIndex index = new LineNumberIndex(new File(dir, FILENAME));
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                try {
+                    index.save();
+                } catch (IOException e) {
+                    // the index is only an optimization
+                }
+            }
+        });
+        return index;
+    }
+
+    synchronized LineNumbers get(String className, String hash) {
+        load();
+        Entry entry = entries.get(className);
+        if (entry != null && entry.hash.equals(hash)) {
+            if (entry.day != today) {
+                entry.day = today;
+                dirty = true;
+            }
+            return entry.lineNumbers;
+        }
+        return null;
+    }
+
+    synchronized void put(String className, String hash, LineNumbers lineNumbers) {
+        load();
+        entries.put(className, new Entry(hash, today, lineNumbers));
+        dirty = true;
+    }
+
+    synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Map<String, Entry> merged = new HashMap<String, Entry>();
+        read(merged);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry saved = merged.get(entry.getKey());
+            if (saved == null || saved.day <= entry.getValue().day) {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        StringBuilder contents = new StringBuilder(HEADER).append('\n');
+        for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+            Entry value = entry.getValue();
+            if (today - value.day > MAX_AGE_DAYS) {
+                continue;
+            }
+            contents.append(entry.getKey()).append(' ').append(value.hash).append(' ').append(value.day)
+                    .append(' ').append(value.lineNumbers.firstClassLine());
+            for (Map.Entry<String, Integer> method : value.lineNumbers.methodLines().entrySet()) {
+                contents.append(' ').append(method.getKey()).append('=').append(method.getValue());
+            }
+            contents.append('\n');
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        File tmp = File.createTempFile(FILENAME, ".tmp", dir);
+        try {
+            IO.write(tmp, contents.toString());
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Can't write " + file);
+            }
+        } finally {
+            tmp.delete();
+        }
+        dirty = false;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        read(entries);
+    }
+
+    private void read(Map<String, Entry> entries) {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            BufferedReader in = new BufferedReader(new FileReader(file));
+            try {
+                if (!HEADER.equals(in.readLine())) {
+                    return;
+                }
+                String line;
+                while ((line = in.readLine()) != null) {
+                    parse(line, entries);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            entries.clear();
+        }
+    }
+
+    private void parse(String line, Map<String, Entry> entries) {
+        String[] fields = line.split(" ");
+        if (fields.length < 4) {
+            return;
+        }
+        try {
+            Map<String, Integer> methodLines = new LinkedHashMap<String, Integer>();
+            for (int i = 4; i < fields.length; i++) {
+                int separator = fields[i].lastIndexOf('=');
+                methodLines.put(fields[i].substring(0, separator), Integer.valueOf(fields[i]
+                        .substring(separator + 1)));
+            }
+            entries.put(fields[0], new Entry(fields[1], Integer.parseInt(fields[2]), new LineNumbers(Integer
+                    .parseInt(fields[3]), methodLines)));
+        } catch (RuntimeException e) {
+            // skip corrupted entry
+        }
+    }
+
+    static String hash(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(bytes)) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Entry {
+        private final String hash;
+        private final LineNumbers lineNumbers;
+        /** The day the entry was last used, in days since the epoch. */
+        private int day;
+
+        Entry(String hash, int day, LineNumbers lineNumbers) {
+            this.hash = hash;
+            this.day = day;
+            this.lineNumbers = lineNumbers;
+        }
+    }
+}
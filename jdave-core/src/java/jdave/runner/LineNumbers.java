@@ -0,0 +1,53 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+import net.sf.cglib.asm.Type;
+
+/**
+ * Line numbers of a class file: the first line of the class and the first
+ * line of each of its public methods. Methods are keyed by name and
+ * descriptor, so overloaded methods have lines of their own.
+ */
+class LineNumbers {
+    private final int firstClassLine;
+    private final Map<String, Integer> methodLines;
+
+    LineNumbers(int firstClassLine, Map<String, Integer> methodLines) {
+        this.firstClassLine = firstClassLine;
+        this.methodLines = Collections.unmodifiableMap(methodLines);
+    }
+
+    int firstClassLine() {
+        return firstClassLine;
+    }
+
+    Integer firstMethodLine(String methodKey) {
+        return methodLines.get(methodKey);
+    }
+
+    Map<String, Integer> methodLines() {
+        return methodLines;
+    }
+
+    static String keyOf(Method method) {
+        return method.getName() + Type.getMethodDescriptor(method);
+    }
+}
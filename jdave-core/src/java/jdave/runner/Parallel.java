@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a specification or a context whose behaviors may be run concurrently.
+ * An annotation on a context overrides the one on its specification, so a
+ * single context can opt out with <code>@Parallel(false)</code>.
+ * <p>
+ * The number of threads is read from system property
+ * {@link SpecRunner#PARALLELISM}, by default the number of processors.
+ * Setting it to 1 disables parallel execution. If system property
+ * {@link SpecRunner#THREADS} is <code>virtual</code>, each behavior runs on a
+ * virtual thread of its own, and only an explicitly set
+ * {@link SpecRunner#PARALLELISM} limits how many of them run at a time.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface Parallel {
+    boolean value() default true;
+}
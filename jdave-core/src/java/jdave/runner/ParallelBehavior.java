@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A behavior which has already been submitted for execution. Running it waits
+ * for the execution to finish and reports the recorded results.
+ */
+final class ParallelBehavior extends Behavior {
+    private final Future<RecordedResults> execution;
+
+    ParallelBehavior(Behavior behavior, Future<RecordedResults> execution) {
+        super(behavior.getContextType(), behavior.getMethod());
+        this.execution = execution;
+    }
+
+    @Override
+    public void run(IBehaviorResults results) {
+        try {
+            execution.get().replay(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results.error(method, e);
+        } catch (ExecutionException e) {
+            results.error(method, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs behaviors of consecutive parallel contexts concurrently while the
+ * visitor still sees contexts and behaviors in the order they are declared.
+ * A context which is not parallel acts as a barrier: everything submitted
+ * before it has finished before it is run.
+ * <p>
+ * Virtual threads are not pooled: each behavior gets a thread of its own, and
+ * at most <code>parallelism</code> of them run at a time unless it is
+ * {@link #UNBOUNDED}.
+ */
+class ParallelContexts {
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    private final int parallelism;
+    private final ISpecVisitor callback;
+    private final List<Context> contexts = new ArrayList<Context>();
+    private final List<List<Behavior>> behaviors = new ArrayList<List<Behavior>>();
+    private ExecutorService executor;
+
+    ParallelContexts(int parallelism, ISpecVisitor callback) {
+        this.parallelism = parallelism;
+        this.callback = callback;
+    }
+
+    boolean accepts(Class<?> specType, Class<?> contextType) {
+        return parallelism > 1 && isParallel(specType, contextType);
+    }
+
+    private boolean isParallel(Class<?> specType, Class<?> contextType) {
+        Parallel parallel = contextType.getAnnotation(Parallel.class);
+        if (parallel == null) {
+            parallel = specType.getAnnotation(Parallel.class);
+        }
+        return parallel != null && parallel.value();
+    }
+
+    /**
+     * @param behaviors the behaviors of the context the visitor is offered
+     */
+    void add(Context context, List<Behavior> behaviors) {
+        contexts.add(context);
+        this.behaviors.add(behaviors);
+    }
+
+    void flush() {
+        List<List<Behavior>> submitted = new ArrayList<List<Behavior>>();
+        for (List<Behavior> contextBehaviors : behaviors) {
+            submitted.add(submit(contextBehaviors));
+        }
+        for (int i = 0; i < contexts.size(); i++) {
+            Context context = contexts.get(i);
+            Object event = Tracing.getTracer().begin(Trace.CONTEXT);
+            try {
+                callback.onContext(context);
+                for (Behavior behavior : submitted.get(i)) {
+                    callback.onBehavior(behavior);
+                }
+                callback.afterContext(context);
+            } finally {
+                if (event != null) {
+                    Tracing.getTracer().end(event, context.getSpecType().getName(), context.getName(), null, null);
+                }
+            }
+        }
+        contexts.clear();
+        behaviors.clear();
+    }
+
+    private List<Behavior> submit(List<Behavior> behaviors) {
+        List<Behavior> submitted = new ArrayList<Behavior>();
+        for (final Behavior behavior : behaviors) {
+            submitted.add(new ParallelBehavior(behavior, executor().submit(new Callable<RecordedResults>() {
+                public RecordedResults call() {
+                    RecordedResults results = new RecordedResults();
+                    behavior.run(results);
+                    return results;
+                }
+            })));
+        }
+        return submitted;
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            if (VirtualThreads.isEnabled()) {
+                executor = new ThreadPerTaskExecutor(VirtualThreads.factory(), parallelism);
+            } else {
+                executor = Executors.newFixedThreadPool(parallelism, threadFactory());
+            }
+        }
+        return executor;
+    }
+
+    private ThreadFactory threadFactory() {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jdave-runner-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class ThreadPerTaskExecutor extends AbstractExecutorService {
+        private final ThreadFactory threadFactory;
+        private final Semaphore permits;
+        private final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        private volatile boolean shutdown;
+
+        ThreadPerTaskExecutor(ThreadFactory threadFactory, int parallelism) {
+            this.threadFactory = threadFactory;
+            this.permits = parallelism == UNBOUNDED ? null : new Semaphore(parallelism);
+        }
+
+        public void execute(final Runnable task) {
+            Thread thread = threadFactory.newThread(new Runnable() {
+                public void run() {
+                    try {
+                        if (permits == null) {
+                            task.run();
+                            return;
+                        }
+                        permits.acquireUninterruptibly();
+                        try {
+                            task.run();
+                        } finally {
+                            permits.release();
+                        }
+                    } finally {
+                        threads.remove(Thread.currentThread());
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            synchronized (threads) {
+                for (Thread thread : threads) {
+                    thread.interrupt();
+                }
+            }
+            return Collections.emptyList();
+        }
+
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        public boolean isTerminated() {
+            return shutdown && threads.isEmpty();
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
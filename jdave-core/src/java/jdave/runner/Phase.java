@@ -0,0 +1,38 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+/**
+ * The phases of a single behavior run, in the order they are executed.
+ */
+public enum Phase {
+    /** <code>Specification.create()</code> */
+    SPEC_CREATE,
+    /** Construction of the context instance and its instantiation listeners. */
+    CONTEXT_INSTANTIATION,
+    /** <code>IContextObjectFactory.newContextObject</code> and its creation listeners. */
+    CONTEXT_OBJECT_CREATION,
+    /** The behavior method itself. */
+    BEHAVIOR,
+    /** <code>Specification.verifyMocks()</code> */
+    VERIFY_MOCKS,
+    /** The context disposer, destroy listeners and <code>Specification.destroy()</code>. */
+    DESTROY;
+
+    public String getName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
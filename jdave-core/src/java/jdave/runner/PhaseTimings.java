@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects phase timings per behavior, that is per context class and behavior
+ * method, so that an inherited behavior run in several contexts gets timings
+ * of its own in each. Timings of repeated runs of the same behavior are
+ * summed. Safe to use from several runner threads.
+ */
+public class PhaseTimings implements IPhaseListener {
+    private static final Phase[] PHASES = Phase.values();
+    private final ConcurrentMap<Key, AtomicLongArray> timings = new ConcurrentHashMap<Key, AtomicLongArray>();
+
+    public void phase(Class<?> contextType, Method method, Phase phase, long nanos) {
+        Key key = new Key(contextType, method);
+        AtomicLongArray phases = timings.get(key);
+        if (phases == null) {
+            AtomicLongArray newPhases = new AtomicLongArray(PHASES.length);
+            phases = timings.putIfAbsent(key, newPhases);
+            if (phases == null) {
+                phases = newPhases;
+            }
+        }
+        phases.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * @return the nanoseconds spent in each phase of given behavior, or
+     * <code>null</code> if no timings were recorded for it
+     */
+    public Map<Phase, Long> get(Class<?> contextType, Method method) {
+        AtomicLongArray phases = timings.get(new Key(contextType, method));
+        if (phases == null) {
+            return null;
+        }
+        Map<Phase, Long> result = new EnumMap<Phase, Long>(Phase.class);
+        for (Phase phase : PHASES) {
+            result.put(phase, phases.get(phase.ordinal()));
+        }
+        return result;
+    }
+
+    /**
+     * @return the total nanoseconds spent in given behavior, or -1 if no
+     * timings were recorded for it
+     */
+    public long total(Class<?> contextType, Method method) {
+        AtomicLongArray phases = timings.get(new Key(contextType, method));
+        if (phases == null) {
+            return -1;
+        }
+        long total = 0;
+        for (int i = 0; i < phases.length(); i++) {
+            total += phases.get(i);
+        }
+        return total;
+    }
+
+    private static class Key {
+        private final Class<?> contextType;
+        private final Method method;
+
+        Key(Class<?> contextType, Method method) {
+            this.contextType = contextType;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return contextType.equals(other.contextType) && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * contextType.hashCode() + method.hashCode();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdave.ExpectationFailedException;
+
+/**
+ * Records the results and phase timings of a behavior run on another thread so
+ * that they can later be reported in the original order.
+ */
+class RecordedResults implements IBehaviorResults, IPhaseListener {
+    private final List<Event> results = new ArrayList<Event>();
+
+    public void expected(Method method) {
+        results.add(new Result(method, null, false));
+    }
+
+    public void unexpected(Method method, ExpectationFailedException e) {
+        results.add(new Result(method, e, true));
+    }
+
+    public void error(Method method, Throwable t) {
+        results.add(new Result(method, t, false));
+    }
+
+    public void phase(Class<?> contextType, Method method, Phase phase, long nanos) {
+        results.add(new Timing(contextType, method, phase, nanos));
+    }
+
+    void replay(IBehaviorResults target) {
+        for (Event result : results) {
+            result.replay(target);
+        }
+    }
+
+    private interface Event {
+        void replay(IBehaviorResults target);
+    }
+
+    private static class Timing implements Event {
+        private final Class<?> contextType;
+        private final Method method;
+        private final Phase phase;
+        private final long nanos;
+
+        Timing(Class<?> contextType, Method method, Phase phase, long nanos) {
+            this.contextType = contextType;
+            this.method = method;
+            this.phase = phase;
+            this.nanos = nanos;
+        }
+
+        public void replay(IBehaviorResults target) {
+            if (target instanceof IPhaseListener) {
+                ((IPhaseListener) target).phase(contextType, method, phase, nanos);
+            }
+        }
+    }
+
+    private static class Result implements Event {
+        private final Method method;
+        private final Throwable t;
+        private final boolean unexpected;
+
+        Result(Method method, Throwable t, boolean unexpected) {
+            this.method = method;
+            this.t = t;
+            this.unexpected = unexpected;
+        }
+
+        public void replay(IBehaviorResults target) {
+            if (t == null) {
+                target.expected(method);
+            } else if (unexpected) {
+                target.unexpected(method, (ExpectationFailedException) t);
+            } else {
+                target.error(method, t);
+            }
+        }
+    }
+}
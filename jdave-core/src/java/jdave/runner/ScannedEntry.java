@@ -0,0 +1,64 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A file or a jar entry found by the {@link Scanner}.
+ */
+abstract class ScannedEntry {
+    private final String path;
+    private final String location;
+    private final long lastModified;
+    private final long size;
+
+    ScannedEntry(String path, String location, long lastModified, long size) {
+        this.path = path;
+        this.location = location;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    /**
+     * @return the file path, or the entry name for jar entries
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the file path, or <code>path/to/jar!/entry</code> for jar
+     * entries
+     */
+    String getLocation() {
+        return location;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return the contents, to be closed by the caller
+     */
+    abstract InputStream open() throws IOException;
+}
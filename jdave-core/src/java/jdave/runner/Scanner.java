@@ -16,14 +16,36 @@
 package jdave.runner;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
+ * Scans a directory tree or a jar file. A jar may be given either as a path
+ * to the jar or as <code>path/to/specs.jar!/some/package</code>, which is
+ * also what {@link java.net.URL#getPath()} returns for classes in jars.
+ * <p>
+ * Directories are listed and files are read in parallel by
+ * <code>jdave.runner.scanner.threads</code> threads, by default as many as
+ * there are processors.
+ * 
  * @author Joni Freeman
  */
 class Scanner {
+    public static final String THREADS = "jdave.runner.scanner.threads";
+    private static final String JAR_SEPARATOR = "!/";
     private final URI path;
 
     Scanner(String path) {
@@ -38,24 +60,178 @@ class Scanner {
         }
     }
 
-    void forEach(String extension, IFileHandler fileHandler) {
-        Stack<File> dirs = new Stack<File>();
-        dirs.push(new File(path.getPath()));
-        forEach(extension, fileHandler, dirs);
+    /**
+     * Calls given handler concurrently for each file in a directory tree or
+     * each entry in a jar.
+     */
+    void forEach(String extension, final IEntryHandler entryHandler) {
+        String filePath = path.getPath();
+        int separator = filePath.indexOf(JAR_SEPARATOR);
+        if (separator != -1) {
+            forEachEntry(filePath.substring(0, separator), filePath.substring(separator + JAR_SEPARATOR.length()),
+                    extension, entryHandler);
+        } else if (filePath.endsWith(".jar") && new File(filePath).isFile()) {
+            forEachEntry(filePath, "", extension, entryHandler);
+        } else {
+            new Walk(extension) {
+                @Override
+                void handle(final File file) throws IOException {
+                    entryHandler.handle(new ScannedEntry(file.getPath(), file.getPath(), file.lastModified(),
+                            file.length()) {
+                        @Override
+                        InputStream open() throws IOException {
+                            return new FileInputStream(file);
+                        }
+                    });
+                }
+            }.run(new File(filePath));
+        }
+    }
+
+    private void forEachEntry(final String jar, String prefix, String extension, final IEntryHandler entryHandler) {
+        final ZipFile zip;
+        try {
+            zip = new ZipFile(jar);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not open jar: " + jar, e);
+        }
+        try {
+            List<ZipEntry> entries = new ArrayList<ZipEntry>();
+            Enumeration<? extends ZipEntry> e = zip.entries();
+            while (e.hasMoreElements()) {
+                ZipEntry entry = e.nextElement();
+                if (!entry.isDirectory() && entry.getName().startsWith(prefix)
+                        && entry.getName().endsWith("." + extension)) {
+                    entries.add(entry);
+                }
+            }
+            Tasks tasks = new Tasks();
+            for (final ZipEntry entry : entries) {
+                tasks.submit(new Task() {
+                    public void run() throws IOException {
+                        entryHandler.handle(new ScannedEntry(entry.getName(), jar + JAR_SEPARATOR + entry.getName(),
+                                entry.getTime(), entry.getSize()) {
+                            @Override
+                            InputStream open() throws IOException {
+                                return zip.getInputStream(entry);
+                            }
+                        });
+                    }
+                });
+            }
+            tasks.await();
+        } finally {
+            try {
+                zip.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static abstract class Walk {
+        private final String suffix;
+        private final Tasks tasks = new Tasks();
+
+        Walk(String extension) {
+            this.suffix = "." + extension;
+        }
+
+        abstract void handle(File file) throws IOException;
+
+        void run(File root) {
+            list(root);
+            tasks.await();
+        }
+
+        private void list(final File dir) {
+            tasks.submit(new Task() {
+                public void run() {
+                    File[] files = dir.listFiles();
+                    if (files == null) {
+                        throw new RuntimeException("Can not list: " + dir);
+                    }
+                    for (final File file : files) {
+                        if (file.isDirectory()) {
+                            list(file);
+                        } else if (file.getName().endsWith(suffix)) {
+                            tasks.submit(new Task() {
+                                public void run() throws IOException {
+                                    handle(file);
+                                }
+                            });
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
     }
-    
-    private void forEach(final String extension, IFileHandler fileHandler, Stack<File> dirs) {
-        do {
-            File dir = dirs.pop();
-            for (File file : dir.listFiles()) {
-                if (file.isDirectory()) {
-                    dirs.push(file);
-                } else {
-                    if (file.getName().endsWith("." + extension)) {
-                        fileHandler.handle(file);                        
+
+    /**
+     * Runs tasks, which may submit more tasks, until all are done. The first
+     * failure is rethrown from {@link #await()}.
+     */
+    private static class Tasks {
+        private final ExecutorService executor = Executors.newFixedThreadPool(threads(), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jdave-scanner");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        void submit(final Task task) {
+            pending.incrementAndGet();
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        if (failure.get() == null) {
+                            task.run();
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        if (pending.decrementAndGet() == 0) {
+                            synchronized (Tasks.this) {
+                                Tasks.this.notifyAll();
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        void await() {
+            try {
+                synchronized (this) {
+                    while (pending.get() > 0) {
+                        wait();
                     }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                executor.shutdownNow();
             }
-        } while (!dirs.isEmpty());
+            Throwable t = failure.get();
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            } else if (t != null) {
+                throw new RuntimeException(t);
+            }
+        }
+
+        private static int threads() {
+            String threads = System.getProperty(THREADS);
+            return threads != null ? Integer.parseInt(threads) : Runtime.getRuntime().availableProcessors();
+        }
     }
-}
\ No newline at end of file
+}
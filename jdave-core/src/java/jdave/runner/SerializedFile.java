@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * A file holding one serialized object and the version of its format. The
+ * file is replaced through a temporary file in the same directory, so that
+ * concurrent runs never see a partially written file.
+ */
+class SerializedFile {
+    private final File file;
+    private final int version;
+
+    SerializedFile(File file, int version) {
+        this.file = file;
+        this.version = version;
+    }
+
+    /**
+     * @return the object in the file, or <code>null</code> if the file is
+     * missing, unreadable or of another version
+     */
+    Object read() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                return in.readInt() == version ? in.readObject() : null;
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    void write(Serializable object) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(version);
+                out.writeObject(object);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("Can not rename " + tmp + " to " + file);
+                }
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+}
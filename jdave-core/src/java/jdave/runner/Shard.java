@@ -0,0 +1,206 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import jdave.support.Assert;
+
+/**
+ * Selects the specs one of several independent runs should run, so that a
+ * suite can be split over several machines. Every run computes the same
+ * deterministic split from the discovered specs and keeps its own part,
+ * without any coordination between the runs.
+ * <p>
+ * Specs are weighted by their historical duration when one is known, and
+ * otherwise by their number of behaviors, scaled by the mean historical
+ * duration of a behavior. The heaviest specs are assigned first, each to the
+ * currently lightest shard.
+ * <p>
+ * Enabled by setting <code>jdave.shard.count</code> and
+ * <code>jdave.shard.index</code> (zero based). Historical durations are read
+ * from the properties file given by <code>jdave.shard.durations</code>,
+ * mapping spec class names to milliseconds. The file must be the same on
+ * every run, so a node local {@link History} is only used to order the specs
+ * within a shard. To produce the file, run the shards with
+ * <code>jdave.runner.history</code> set and merge their history files with
+ * <code>jdave.junit4.ShardLauncher --merge-durations</code>, or write the
+ * {@link History#getSpecDurations() durations} of a history with
+ * {@link #writeDurations(File, Map)}.
+ */
+public class Shard {
+    public static final String INDEX = "jdave.shard.index";
+    public static final String COUNT = "jdave.shard.count";
+    public static final String DURATIONS = "jdave.shard.durations";
+    private final int index;
+    private final int count;
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+
+    public Shard(int index, int count) {
+        Assert.isTrue(count > 0, "shard count must be positive, was " + count);
+        Assert.isTrue(index >= 0 && index < count, "shard index must be between 0 and " + (count - 1) + ", was " + index);
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @return the shard given by the <code>jdave.shard.index</code> and
+     * <code>jdave.shard.count</code> system properties, or <code>null</code>
+     * if <code>jdave.shard.count</code> is not set
+     */
+    public static Shard fromSystemProperties() {
+        String count = System.getProperty(COUNT);
+        if (count == null) {
+            return null;
+        }
+        Shard shard = new Shard(Integer.parseInt(System.getProperty(INDEX, "0")), Integer.parseInt(count));
+        String durations = System.getProperty(DURATIONS);
+        if (durations != null && new File(durations).isFile()) {
+            shard.addDurations(readDurations(new File(durations)));
+        }
+        return shard;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Adds historical durations, in milliseconds, of specs by their class name.
+     */
+    public void addDurations(Map<String, Long> durations) {
+        this.durations.putAll(durations);
+    }
+
+    /**
+     * @param behaviors the number of behaviors of every discovered spec, by
+     * spec class name
+     * @return the class names of the specs of this shard, sorted by name
+     */
+    public List<String> select(Map<String, Integer> behaviors) {
+        final Map<String, Double> weights = weigh(behaviors, durations);
+        List<String> specs = new ArrayList<String>(behaviors.keySet());
+        Collections.sort(specs, new Comparator<String>() {
+            public int compare(String spec1, String spec2) {
+                int byWeight = weights.get(spec2).compareTo(weights.get(spec1));
+                return byWeight != 0 ? byWeight : spec1.compareTo(spec2);
+            }
+        });
+        double[] loads = new double[count];
+        List<String> selected = new ArrayList<String>();
+        for (String spec : specs) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            loads[lightest] += weights.get(spec);
+            if (lightest == index) {
+                selected.add(spec);
+            }
+        }
+        Collections.sort(selected);
+        return selected;
+    }
+
+    /**
+     * @return the historical duration of each spec, or its number of
+     * behaviors scaled by the mean historical duration of a behavior if its
+     * duration is not known
+     */
+    static Map<String, Double> weigh(Map<String, Integer> behaviors, Map<String, Long> durations) {
+        long knownDuration = 0;
+        int knownBehaviors = 0;
+        for (Map.Entry<String, Integer> spec : behaviors.entrySet()) {
+            Long duration = durations.get(spec.getKey());
+            if (duration != null) {
+                knownDuration += duration;
+                knownBehaviors += spec.getValue();
+            }
+        }
+        double behaviorDuration = knownBehaviors > 0 ? (double) knownDuration / knownBehaviors : 1;
+        Map<String, Double> weights = new HashMap<String, Double>();
+        for (Map.Entry<String, Integer> spec : behaviors.entrySet()) {
+            Long duration = durations.get(spec.getKey());
+            weights.put(spec.getKey(), duration != null ? duration : spec.getValue() * behaviorDuration);
+        }
+        return weights;
+    }
+
+    /**
+     * Reads durations, in milliseconds, by spec class name from a properties
+     * file. Entries which are not numbers are ignored.
+     */
+    public static Map<String, Long> readDurations(File file) {
+        Properties properties = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can not read spec durations: " + file, e);
+        }
+        Map<String, Long> durations = new HashMap<String, Long>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            try {
+                durations.put((String) entry.getKey(), Long.valueOf(((String) entry.getValue()).trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * Writes durations, in milliseconds, by spec class name to a properties
+     * file which {@link #readDurations(File)} reads.
+     */
+    public static void writeDurations(File file, Map<String, Long> durations) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> duration : durations.entrySet()) {
+            properties.setProperty(duration.getKey(), String.valueOf(duration.getValue()));
+        }
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                properties.store(out, "spec durations in milliseconds");
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can not write spec durations: " + file, e);
+        }
+    }
+}
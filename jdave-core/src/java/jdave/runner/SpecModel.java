@@ -0,0 +1,173 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdave.Specification;
+import jdave.support.ClassCache;
+import jdave.support.Reflection;
+
+import org.junit.Ignore;
+
+/**
+ * The resolved structure of a specification: its contexts and their
+ * behaviors in declaration order, and its <code>onceBefore</code> and
+ * <code>onceAfter</code> methods.
+ * <p>
+ * A model is built once per specification class and cached, so the
+ * introspection, reflection and line number lookups it needs are not repeated
+ * for every visit or run. Models are immutable and may be shared between
+ * threads.
+ */
+public final class SpecModel {
+    private static final ClassCache<SpecModel> models = new ClassCache<SpecModel>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected SpecModel compute(Class<?> specType) {
+            return new SpecModel((Class<? extends Specification<?>>) specType);
+        }
+    };
+
+    private final Class<? extends Specification<?>> specType;
+    private final ISpecIntrospection introspection;
+    private final List<ContextModel> contexts;
+    private final Map<Class<?>, ContextModel> contextsByType = new HashMap<Class<?>, ContextModel>();
+    private final Method onceBefore;
+    private final Method onceAfter;
+
+    private SpecModel(Class<? extends Specification<?>> specType) {
+        this.specType = specType;
+        this.introspection = newIntrospection(specType);
+        this.contexts = Collections.unmodifiableList(contextsOf(specType));
+        for (ContextModel context : contexts) {
+            contextsByType.put(context.getContextType(), context);
+        }
+        this.onceBefore = publicStaticMethod(specType, "onceBefore");
+        this.onceAfter = publicStaticMethod(specType, "onceAfter");
+    }
+
+    public static SpecModel of(Class<? extends Specification<?>> specType) {
+        return models.get(specType);
+    }
+
+    public Class<? extends Specification<?>> getSpecType() {
+        return specType;
+    }
+
+    public List<ContextModel> getContexts() {
+        return contexts;
+    }
+
+    /**
+     * @return the model of given context or <code>null</code> if it is not a
+     *         context of this specification
+     */
+    public ContextModel getContext(Class<?> contextType) {
+        return contextsByType.get(contextType);
+    }
+
+    /**
+     * @return the public static <code>onceBefore</code> method or
+     *         <code>null</code> if the specification has none
+     */
+    public Method getOnceBefore() {
+        return onceBefore;
+    }
+
+    /**
+     * @return the public static <code>onceAfter</code> method or
+     *         <code>null</code> if the specification has none
+     */
+    public Method getOnceAfter() {
+        return onceAfter;
+    }
+
+    private List<ContextModel> contextsOf(Class<?> specType) {
+        List<ContextModel> contexts = new ArrayList<ContextModel>();
+        for (Class<?> member : ClassMemberSorter.getClasses(specType)) {
+            if (qualifiesAsContext(member) && introspection.isContextClass(specType, member)) {
+                contexts.add(new ContextModel(member, behaviorsOf(member)));
+            }
+        }
+        return contexts;
+    }
+
+    private List<Method> behaviorsOf(Class<?> contextType) {
+        List<Method> behaviors = new ArrayList<Method>();
+        for (Method method : ClassMemberSorter.getMethods(contextType)) {
+            if (introspection.isBehavior(method)) {
+                behaviors.add(Reflection.accessible(method));
+            }
+        }
+        return behaviors;
+    }
+
+    private boolean qualifiesAsContext(Class<?> clazz) {
+        return annotationIsPresent(clazz, Ignore.class) == false;
+    }
+
+    private boolean annotationIsPresent(Class<?> clazz, Class<? extends Annotation> annotationType) {
+        for (Annotation annotation : clazz.getAnnotations()) {
+            if (annotation.annotationType().equals(annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Method publicStaticMethod(Class<?> specType, String name) {
+        try {
+            return Reflection.accessible(Reflection.getMethod(specType, name, Modifier.PUBLIC,
+                    Modifier.STATIC));
+        } catch (NoSuchMethodException isOk) {
+            return null;
+        }
+    }
+
+    private static ISpecIntrospection newIntrospection(Class<?> specType) {
+        try {
+            Class<?> clazz = specType;
+            do {
+                for (Class<?> type : typesOf(clazz)) {
+                    if (type.isAnnotationPresent(IntrospectionStrategy.class)) {
+                        return type.getAnnotation(IntrospectionStrategy.class).value().newInstance();
+                    }
+                }
+            } while ((clazz = clazz.getSuperclass()) != null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return new DefaultSpecIntrospection();
+    }
+
+    private static Collection<Class<?>> typesOf(Class<?> clazz) {
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        types.add(clazz);
+        for (Class<?> anInterface : clazz.getInterfaces()) {
+            types.add(anInterface);
+        }
+        return types;
+    }
+}
@@ -15,16 +15,13 @@
  */
 package jdave.runner;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import jdave.Specification;
-import jdave.support.Reflection;
-
-import org.junit.Ignore;
 
 /**
  * @author Pekka Enberg
@@ -32,9 +29,32 @@ import org.junit.Ignore;
  * @author Lasse Koskela
  */
 public class SpecRunner implements MethodInvoker {
+    public static final String PARALLELISM = "jdave.runner.parallelism";
+    public static final String THREADS = "jdave.runner.threads";
+    /**
+     * The timeout in milliseconds of behaviors without {@link Timeout}
+     * annotation, by default none.
+     * <p>
+     * Setting it moves every behavior off the thread which would otherwise
+     * run it: each one runs on a thread of its own, by default a pooled
+     * thread whose thread locals are cleared, so thread local state set up by
+     * the caller is not visible to the behavior. Parallel behaviors then use two threads each, one waiting
+     * for the other.
+     */
+    public static final String TIMEOUT = "jdave.runner.timeout";
+
     public <T extends Specification<?>> void visit(Class<T> specType, ISpecVisitor callback) {
-        for (Class<?> contextType : getContextsOf(specType)) {
-            Context context = new Context(specType, contextType) {
+        visit(SpecModel.of(specType), callback);
+    }
+
+    /**
+     * Visits a resolved specification. Runners which describe, run and
+     * document the same specification should resolve it once and pass the
+     * model to each of them.
+     */
+    public void visit(SpecModel model, ISpecVisitor callback) {
+        for (ContextModel contextModel : model.getContexts()) {
+            Context context = new Context(model, contextModel) {
                 @Override
                 protected Behavior newBehavior(Method method,
                         Class<? extends Specification<?>> specType, Class<?> contextType) {
@@ -46,76 +66,139 @@ public class SpecRunner implements MethodInvoker {
     }
 
     public <T extends Specification<?>> void run(Class<T> specType, ISpecVisitor callback) {
-        runOnceBefores(specType);
-        runContexts(specType, callback);
-        runOnceAfters(specType);
+        run(SpecModel.of(specType), callback);
     }
 
-    private <T extends Specification<?>> void runOnceBefores(Class<T> specType) {
-        runPublicStaticVoidMethodNamed("onceBefore", specType);
+    /**
+     * Runs a resolved specification. If the callback is an
+     * {@link IBehaviorFilter}, behaviors it excludes are not offered to it,
+     * contexts without included behaviors are not visited and a
+     * specification without any is not run at all, not even its
+     * <code>onceBefore</code> and <code>onceAfter</code> methods.
+     */
+    public void run(SpecModel model, ISpecVisitor callback) {
+        List<Context> contexts = new ArrayList<Context>();
+        Map<Context, List<Behavior>> behaviors = new HashMap<Context, List<Behavior>>();
+        for (ContextModel contextModel : model.getContexts()) {
+            Context context = new Context(model, contextModel) {
+                @Override
+                protected Behavior newBehavior(Method method,
+                        Class<? extends Specification<?>> specType, Class<?> contextType) {
+                    return new ExecutingBehavior(method, specType, contextType, SpecRunner.this);
+                }
+            };
+            List<Behavior> selected = select(context, callback);
+            if (selected != null) {
+                contexts.add(context);
+                behaviors.put(context, selected);
+            }
+        }
+        if (contexts.isEmpty() && callback instanceof IBehaviorFilter) {
+            return;
+        }
+        Object event = Tracing.getTracer().begin(Trace.SPEC);
+        try {
+            runOnceBefores(model);
+            runContexts(model, contexts, behaviors, callback);
+            runOnceAfters(model);
+        } finally {
+            if (event != null) {
+                Tracing.getTracer().end(event, model.getSpecType().getName(), null, null, null);
+            }
+        }
+    }
+
+    /**
+     * @return the behaviors of given context to offer to the callback, or
+     *         <code>null</code> if the context should not be visited
+     */
+    private List<Behavior> select(Context context, ISpecVisitor callback) {
+        List<Behavior> behaviors = context.getBehaviors();
+        if (!(callback instanceof IBehaviorFilter)) {
+            return behaviors;
+        }
+        IBehaviorFilter filter = (IBehaviorFilter) callback;
+        List<Behavior> selected = new ArrayList<Behavior>();
+        for (Behavior behavior : behaviors) {
+            if (filter.shouldRun(behavior)) {
+                selected.add(behavior);
+            }
+        }
+        return selected.isEmpty() ? null : selected;
     }
 
-    private <T extends Specification<?>> void runOnceAfters(Class<T> specType) {
-        runPublicStaticVoidMethodNamed("onceAfter", specType);
+    private void runOnceBefores(SpecModel model) {
+        runPublicStaticVoidMethod(model.getOnceBefore());
     }
 
-    private <T> void runPublicStaticVoidMethodNamed(String name, Class<T> specType) {
-        try {
-            Method method = Reflection.getMethod(specType, name, Modifier.PUBLIC, Modifier.STATIC);
+    private void runOnceAfters(SpecModel model) {
+        runPublicStaticVoidMethod(model.getOnceAfter());
+    }
+
+    private void runPublicStaticVoidMethod(Method method) {
+        if (method != null) {
             try {
                 method.invoke(null);
             } catch (Exception e) {
             }
-        } catch (NoSuchMethodException isOk) {
         }
     }
 
-    private <T extends Specification<?>> void runContexts(Class<T> specType, ISpecVisitor callback) {
-        for (Class<?> contextType : getContextsOf(specType)) {
-            Context context = new Context(specType, contextType) {
-                @Override
-                protected Behavior newBehavior(Method method,
-                        Class<? extends Specification<?>> specType, Class<?> contextType) {
-                    return new ExecutingBehavior(method, specType, contextType, SpecRunner.this);
+    private void runContexts(SpecModel model, List<Context> contexts, Map<Context, List<Behavior>> behaviors,
+            ISpecVisitor callback) {
+        Class<? extends Specification<?>> specType = model.getSpecType();
+        ParallelContexts parallelContexts = new ParallelContexts(parallelism(), callback);
+        try {
+            for (Context context : contexts) {
+                if (parallelContexts.accepts(specType, context.getModel().getContextType())) {
+                    parallelContexts.add(context, behaviors.get(context));
+                } else {
+                    parallelContexts.flush();
+                    runTraced(callback, context, behaviors.get(context));
                 }
-            };
-            run(callback, context);
+            }
+            parallelContexts.flush();
+        } finally {
+            parallelContexts.shutdown();
         }
     }
 
-    private void run(ISpecVisitor callback, Context context) {
-        if (context.isContextClass()) {
-            callback.onContext(context);
-            context.run(callback);
-            callback.afterContext(context);
+    private int parallelism() {
+        Integer parallelism = Integer.getInteger(PARALLELISM);
+        if (parallelism != null) {
+            return parallelism;
+        }
+        if (VirtualThreads.isEnabled()) {
+            return ParallelContexts.UNBOUNDED;
         }
+        return Runtime.getRuntime().availableProcessors();
     }
 
-    private <T> Class<?>[] getContextsOf(Class<T> specType) {
-        List<Class<?>> classes = new ArrayList<Class<?>>();
-        for (Class<?> member : ClassMemberSorter.getClasses(specType)) {
-            if (qualifiesAsContext(member)) {
-                classes.add(member);
+    private void runTraced(ISpecVisitor callback, Context context, List<Behavior> behaviors) {
+        Object event = Tracing.getTracer().begin(Trace.CONTEXT);
+        try {
+            callback.onContext(context);
+            for (Behavior behavior : behaviors) {
+                callback.onBehavior(behavior);
+            }
+            callback.afterContext(context);
+        } finally {
+            if (event != null) {
+                Tracing.getTracer().end(event, context.getSpecType().getName(), context.getName(), null, null);
             }
         }
-        return classes.toArray(new Class[classes.size()]);
-    }
-
-    private boolean qualifiesAsContext(Class<?> clazz) {
-        return annotationIsPresent(clazz, Ignore.class) == false;
     }
 
-    private boolean annotationIsPresent(Class<?> clazz, Class<? extends Annotation> annotationType) {
-        for (Annotation annotation : clazz.getAnnotations()) {
-            if (annotation.annotationType().equals(annotationType)) {
-                return true;
-            }
+    private void run(ISpecVisitor callback, Context context) {
+        if (context.isContextClass()) {
+            callback.onContext(context);
+            context.run(callback);
+            callback.afterContext(context);
         }
-        return false;
     }
 
     public void invokeMethod(Method method, Specification<?> spec, Object context)
             throws Throwable {
         method.invoke(context);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The number of milliseconds a behavior may run. An annotation on a behavior
+ * overrides the one on its context, which overrides the one on its
+ * specification. Behaviors without annotation use the timeout given by system
+ * property {@link SpecRunner#TIMEOUT}, if any. Zero means no timeout.
+ * <p>
+ * A behavior which runs out of time is interrupted and fails with a
+ * {@link BehaviorTimeoutException} listing its stack, or the stacks of all
+ * deadlocked threads if it is deadlocked.
+ * <p>
+ * A behavior with a timeout runs on a thread of its own, like one of a
+ * specification which needs thread local isolation, so it does not see the
+ * thread locals of the thread which runs the specification. This applies to
+ * the timeout of {@link SpecRunner#TIMEOUT} too. A behavior which ignores the
+ * interrupt for a second is abandoned, so that the run continues.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Inherited
+public @interface Timeout {
+    long value();
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+/**
+ * The spans of the spec lifecycle which are reported to an {@link ITracer}.
+ */
+public enum Trace {
+    /** A whole specification, including its onceBefore and onceAfter methods. */
+    SPEC,
+    /** A context and all its behaviors. */
+    CONTEXT,
+    /** A single behavior; the detail is its outcome. */
+    BEHAVIOR,
+    /** A {@link Phase} of a behavior; the detail is the name of the phase. */
+    PHASE,
+    /** Generation of specdox; the detail is the suffix of the format. */
+    SPECDOX
+}
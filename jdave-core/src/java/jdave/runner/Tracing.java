@@ -0,0 +1,53 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+/**
+ * Holds the {@link ITracer} of the runner. The tracer class is named by
+ * system property {@link #TRACER} and defaults to the Java Flight Recorder
+ * tracer of the jdave-jfr module. When the class is not on the classpath or
+ * can not be used on the running VM, nothing is traced.
+ */
+public final class Tracing {
+    public static final String TRACER = "jdave.runner.tracer";
+    static final String FLIGHT_RECORDER_TRACER = "jdave.jfr.FlightRecorderTracer";
+    private static final ITracer tracer = load();
+
+    private Tracing() {
+    }
+
+    public static ITracer getTracer() {
+        return tracer;
+    }
+
+    private static ITracer load() {
+        try {
+            String className = System.getProperty(TRACER, FLIGHT_RECORDER_TRACER);
+            return (ITracer) Class.forName(className).newInstance();
+        } catch (Throwable e) {
+            return new NullTracer();
+        }
+    }
+
+    private static class NullTracer implements ITracer {
+        public Object begin(Trace trace) {
+            return null;
+        }
+
+        public void end(Object event, String spec, String context, String behavior, String detail) {
+        }
+    }
+}
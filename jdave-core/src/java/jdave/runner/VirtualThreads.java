@@ -0,0 +1,58 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to virtual threads on JVMs which support them. The runner is
+ * compiled for older JVMs, so virtual threads are created reflectively.
+ * <p>
+ * Virtual threads are used when system property {@link SpecRunner#THREADS}
+ * is <code>virtual</code>. On JVMs without virtual threads, platform threads
+ * are used instead.
+ */
+final class VirtualThreads {
+    static final String VIRTUAL = "virtual";
+    private static final ThreadFactory FACTORY = newFactory();
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    static boolean isEnabled() {
+        return isSupported() && VIRTUAL.equals(System.getProperty(SpecRunner.THREADS));
+    }
+
+    static ThreadFactory factory() {
+        return FACTORY;
+    }
+
+    private static ThreadFactory newFactory() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder,
+                    "jdave-virtual-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
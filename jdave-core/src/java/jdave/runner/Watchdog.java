@@ -0,0 +1,174 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Watches behaviors which have a {@link Timeout}. A single daemon thread
+ * checks the watched behaviors periodically, and interrupts the thread of a
+ * behavior which has run out of time, after recording a
+ * {@link BehaviorTimeoutException} with its stack. Deadlocks are looked for
+ * only once a behavior has run out of time, in which case the exception lists
+ * the stacks of all deadlocked threads.
+ */
+final class Watchdog {
+    private static final long PERIOD = 100;
+    private static final Watchdog INSTANCE = new Watchdog();
+    private final Set<Watch> watches = new CopyOnWriteArraySet<Watch>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private Thread thread;
+
+    static Watchdog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts watching the current thread until the returned watch is
+     * cancelled.
+     */
+    Watch watch(String behavior, long timeout) {
+        Watch watch = new Watch(Thread.currentThread(), behavior, timeout);
+        watches.add(watch);
+        startIfNeeded();
+        return watch;
+    }
+
+    private synchronized void startIfNeeded() {
+        if (thread == null) {
+            thread = new Thread("jdave-watchdog") {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            Thread.sleep(PERIOD);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        check();
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    void check() {
+        long now = System.currentTimeMillis();
+        Set<Long> deadlocked = null;
+        for (Watch watch : watches) {
+            if (now < watch.deadline) {
+                continue;
+            }
+            if (deadlocked == null) {
+                deadlocked = findDeadlockedThreads();
+            }
+            if (deadlocked.contains(watch.thread.getId())) {
+                watch.fire("deadlocked", deadlocked);
+            } else {
+                watch.fire("timed out after " + watch.timeout + " ms", Collections.singleton(watch.thread.getId()));
+            }
+        }
+    }
+
+    private Set<Long> findDeadlockedThreads() {
+        long[] ids = threads.isSynchronizerUsageSupported() ? threads.findDeadlockedThreads() : threads
+                .findMonitorDeadlockedThreads();
+        Set<Long> deadlocked = new HashSet<Long>();
+        if (ids != null) {
+            for (long id : ids) {
+                deadlocked.add(id);
+            }
+        }
+        return deadlocked;
+    }
+
+    private String dump(Set<Long> involved) {
+        long[] ids = new long[involved.size()];
+        int i = 0;
+        for (long id : involved) {
+            ids[i++] = id;
+        }
+        StringBuilder dump = new StringBuilder();
+        for (ThreadInfo info : threads.getThreadInfo(ids, Integer.MAX_VALUE)) {
+            if (info == null) {
+                continue;
+            }
+            dump.append("\n\"").append(info.getThreadName()).append("\" ").append(info.getThreadState());
+            if (info.getLockName() != null) {
+                dump.append(" on ").append(info.getLockName());
+            }
+            if (info.getLockOwnerName() != null) {
+                dump.append(" owned by \"").append(info.getLockOwnerName()).append("\"");
+            }
+            for (StackTraceElement element : info.getStackTrace()) {
+                dump.append("\n\tat ").append(element);
+            }
+        }
+        return dump.toString();
+    }
+
+    class Watch {
+        private final Thread thread;
+        private final String behavior;
+        private final long timeout;
+        private final long deadline;
+        private volatile BehaviorTimeoutException failure;
+
+        Watch(Thread thread, String behavior, long timeout) {
+            this.thread = thread;
+            this.behavior = behavior;
+            this.timeout = timeout;
+            this.deadline = System.currentTimeMillis() + timeout;
+        }
+
+        private synchronized void fire(String reason, Set<Long> involved) {
+            if (!watches.remove(this)) {
+                return;
+            }
+            BehaviorTimeoutException e = new BehaviorTimeoutException(behavior + " " + reason + dump(involved));
+            e.setStackTrace(thread.getStackTrace());
+            failure = e;
+            thread.interrupt();
+        }
+
+        /**
+         * @return the reason the behavior was interrupted, or
+         * <code>null</code> if it was not
+         */
+        BehaviorTimeoutException getFailure() {
+            return failure;
+        }
+
+        /**
+         * Stops watching, clearing the interrupted status of the thread if the
+         * watch interrupted it.
+         */
+        synchronized void cancel() {
+            watches.remove(this);
+            if (failure != null && thread == Thread.currentThread()) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
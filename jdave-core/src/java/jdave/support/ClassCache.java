@@ -0,0 +1,163 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.support;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Caches values computed from classes. Classes are held weakly and values
+ * softly. A value which references its class (as most do) keeps the class
+ * and its class loader alive until the garbage collector clears the value,
+ * at the latest before running out of memory. A computed <code>null</code>
+ * is cached as well. If a maximum size is given, the least recently used
+ * classes are evicted.
+ * <p>
+ * Each value is computed once: threads asking for a value which is being
+ * computed wait for it. If the computation fails, nothing is cached.
+ */
+public abstract class ClassCache<V> {
+    private static final Object NULL = new Object();
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+    private final Map<ClassKey, SoftReference<FutureTask<Object>>> values;
+
+    public ClassCache() {
+        this(0);
+    }
+
+    /**
+     * @param maxSize the maximum number of cached classes, or 0 for no limit
+     */
+    public ClassCache(final int maxSize) {
+        values = new LinkedHashMap<ClassKey, SoftReference<FutureTask<Object>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClassKey, SoftReference<FutureTask<Object>>> eldest) {
+                return maxSize > 0 && size() > maxSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final Class<?> type) {
+        FutureTask<Object> task;
+        boolean computing = false;
+        synchronized (values) {
+            expungeCollectedClasses();
+            SoftReference<FutureTask<Object>> reference = values.get(new ClassKey(type, null));
+            task = reference != null ? reference.get() : null;
+            if (task == null) {
+                task = new FutureTask<Object>(new Callable<Object>() {
+                    public Object call() {
+                        V value = compute(type);
+                        return value != null ? value : NULL;
+                    }
+                });
+                values.put(new ClassKey(type, queue), new SoftReference<FutureTask<Object>>(task));
+                computing = true;
+            }
+        }
+        if (computing) {
+            task.run();
+        }
+        Object value = await(type, task);
+        return value == NULL ? null : (V) value;
+    }
+
+    int size() {
+        synchronized (values) {
+            expungeCollectedClasses();
+            return values.size();
+        }
+    }
+
+    private Object await(Class<?> type, FutureTask<Object> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    synchronized (values) {
+                        ClassKey key = new ClassKey(type, null);
+                        SoftReference<FutureTask<Object>> reference = values.get(key);
+                        if (reference != null && reference.get() == task) {
+                            values.remove(key);
+                        }
+                    }
+                    throw unchecked(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException unchecked(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return t instanceof RuntimeException ? (RuntimeException) t : new RuntimeException(t);
+    }
+
+    private void expungeCollectedClasses() {
+        Object key;
+        while ((key = queue.poll()) != null) {
+            values.remove(key);
+        }
+    }
+
+    protected abstract V compute(Class<?> type);
+
+    /**
+     * A weak reference to a class which is equal to references to the same
+     * class, until the class is collected.
+     */
+    private static class ClassKey extends WeakReference<Class<?>> {
+        private final int hash;
+
+        ClassKey(Class<?> type, ReferenceQueue<Class<?>> queue) {
+            super(type, queue);
+            hash = System.identityHashCode(type);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ClassKey)) {
+                return false;
+            }
+            Class<?> type = get();
+            return type != null && type == ((ClassKey) obj).get();
+        }
+    }
+}
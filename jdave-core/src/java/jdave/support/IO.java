@@ -29,6 +29,14 @@ import java.io.OutputStream;
  */
 public class IO {
     public static String read(InputStream stream) throws IOException {
+        return contents(stream).toString();
+    }
+
+    public static byte[] readBytes(InputStream stream) throws IOException {
+        return contents(stream).toByteArray();
+    }
+
+    private static ByteArrayOutputStream contents(InputStream stream) throws IOException {
         BufferedInputStream in = new BufferedInputStream(stream);
         byte[] buf = new byte[4096];
         ByteArrayOutputStream contents = new ByteArrayOutputStream();
@@ -36,7 +44,7 @@ public class IO {
         while ((len = in.read(buf)) != -1) {
             contents.write(buf, 0, len);
         }
-        return contents.toString();
+        return contents;
     }
 
     public static void write(File file, String content) throws IOException {
@@ -15,6 +15,7 @@
  */
 package jdave.support;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
@@ -51,6 +52,19 @@ public class Reflection {
         return modifier;
     }
 
+    /**
+     * Suppresses access checks of given member, if allowed, so that invoking it
+     * repeatedly does not pay for them.
+     */
+    public static <T extends AccessibleObject> T accessible(T member) {
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException e) {
+            // access checks stay on
+        }
+        return member;
+    }
+
     public static boolean isVoid(Method method) {
         Class<?> returnType = method.getReturnType();
         return "void".equals(returnType.toString());
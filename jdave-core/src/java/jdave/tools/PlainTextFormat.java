@@ -15,10 +15,15 @@
  */
 package jdave.tools;
 
+import java.util.Locale;
+import java.util.Map;
+
+import jdave.runner.Phase;
+
 /**
  * @author Joni Freeman
  */
-public class PlainTextFormat implements IDoxFormat {
+public class PlainTextFormat implements ITimedDoxFormat {
     private StringBuilder dox = new StringBuilder();
     private String specName;
     
@@ -46,6 +51,18 @@ public class PlainTextFormat implements IDoxFormat {
         dox.append("\n");
     }
     
+    public void newBehavior(String behaviorName, Map<Phase, Long> timings) {
+        dox.append("  - ");
+        dox.append(Sentence.fromCamelCase(behaviorName));
+        String separator = " (";
+        for (Map.Entry<Phase, Long> timing : timings.entrySet()) {
+            dox.append(separator).append(timing.getKey().getName()).append(" ");
+            dox.append(String.format(Locale.ENGLISH, "%.3f", timing.getValue() / 1000000.0)).append(" ms");
+            separator = ", ";
+        }
+        dox.append(")\n");
+    }
+
     public String suffix() {
         return "txt";
     }
@@ -15,11 +15,18 @@
  */
 package jdave.tools;
 
+import java.util.Map;
+
 import jdave.Specification;
 import jdave.runner.Behavior;
 import jdave.runner.Context;
 import jdave.runner.ISpecVisitor;
+import jdave.runner.Phase;
+import jdave.runner.PhaseTimings;
+import jdave.runner.SpecModel;
 import jdave.runner.SpecRunner;
+import jdave.runner.Trace;
+import jdave.runner.Tracing;
 
 /**
  * @author Joni Freeman
@@ -31,23 +38,46 @@ public class Specdox {
         this.fileStore = fileStore;
     }
 
-    public void generate(Class<? extends Specification<?>> specType, final IDoxFormat format) {
-        String specName = specType.getSimpleName();
-        format.newSpec(specName, specType.getName());
-        new SpecRunner().visit(specType, new ISpecVisitor() {
-            public void afterContext(Context context) {
-                format.endContext(context.getName());
-            }
+    public void generate(Class<? extends Specification<?>> specType, IDoxFormat format) {
+        generate(specType, format, null);
+    }
+
+    public void generate(Class<? extends Specification<?>> specType, final IDoxFormat format,
+            final PhaseTimings timings) {
+        generate(SpecModel.of(specType), format, timings);
+    }
+
+    public void generate(SpecModel model, final IDoxFormat format, final PhaseTimings timings) {
+        Class<? extends Specification<?>> specType = model.getSpecType();
+        Object event = Tracing.getTracer().begin(Trace.SPECDOX);
+        try {
+            String specName = specType.getSimpleName();
+            format.newSpec(specName, specType.getName());
+            new SpecRunner().visit(model, new ISpecVisitor() {
+                public void afterContext(Context context) {
+                    format.endContext(context.getName());
+                }
             
-            public void onContext(Context context) {
-                format.newContext(context.getName());
-            }
+                public void onContext(Context context) {
+                    format.newContext(context.getName());
+                }
 
-            public void onBehavior(Behavior behavior) {
-                format.newBehavior(behavior.getName());
+                public void onBehavior(Behavior behavior) {
+                    Map<Phase, Long> phases = timings != null ? timings.get(behavior.getContextType(),
+                            behavior.getMethod()) : null;
+                    if (phases != null && format instanceof ITimedDoxFormat) {
+                        ((ITimedDoxFormat) format).newBehavior(behavior.getName(), phases);
+                    } else {
+                        format.newBehavior(behavior.getName());
+                    }
+                }
+            });
+            format.endSpec(specName);
+            fileStore.store(specType.getSimpleName(), format.suffix(), format.toString());
+        } finally {
+            if (event != null) {
+                Tracing.getTracer().end(event, specType.getName(), null, null, format.suffix());
             }
-        });
-        format.endSpec(specName);
-        fileStore.store(specType.getSimpleName(), format.suffix(), format.toString());
+        }
     }
 }
@@ -16,6 +16,8 @@
 package jdave.tools;
 
 import jdave.Specification;
+import jdave.runner.PhaseTimings;
+import jdave.runner.SpecModel;
 
 /**
  * @author Joni Freeman
@@ -23,6 +25,11 @@ import jdave.Specification;
 public class SpecdoxRunner {
     public static final String FORMAT = "jdave.tools.specdox.format";
     public static final String DIRNAME = "jdave.tools.specdox.dir";
+    /**
+     * When set to <code>true</code>, formats which support it document the
+     * time spent in each phase of a behavior.
+     */
+    public static final String TIMINGS = "jdave.tools.specdox.timings";
     private final Formats formats;
     
     public SpecdoxRunner() {
@@ -34,15 +41,34 @@ public class SpecdoxRunner {
     }
     
     public void generate(Class<? extends Specification<?>> specType) {
+        generate(specType, null);
+    }
+
+    public void generate(Class<? extends Specification<?>> specType, PhaseTimings timings) {
+        generate(SpecModel.of(specType), timings);
+    }
+
+    public void generate(SpecModel model, PhaseTimings timings) {
         if (System.getProperty(FORMAT) != null) {
+            if (!timingsEnabled()) {
+                timings = null;
+            }
             for (String s : System.getProperty(FORMAT).split("\\s+")) {
                 IDoxFormat format = formats.formatFor(s);
                 Specdox specdox = new Specdox(new FileStore(dirname()));
-                specdox.generate(specType, format);
+                specdox.generate(model, format, timings);
             }
         }
     } 
 
+    /**
+     * @return <code>true</code> if specdox is generated and should document
+     *         phase timings, i.e. whether timings are worth collecting at all
+     */
+    public static boolean timingsEnabled() {
+        return System.getProperty(FORMAT) != null && Boolean.getBoolean(TIMINGS);
+    }
+
     private String dirname() {
         return System.getProperty(DIRNAME, "target/jdave");
     }
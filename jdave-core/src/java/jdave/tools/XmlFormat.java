@@ -15,10 +15,14 @@
  */
 package jdave.tools;
 
+import java.util.Map;
+
+import jdave.runner.Phase;
+
 /**
  * @author Joni Freeman
  */
-public class XmlFormat implements IDoxFormat {
+public class XmlFormat implements ITimedDoxFormat {
     private StringBuilder dox = new StringBuilder();
     
     public void newSpec(String specName, String fqn) {
@@ -45,6 +49,15 @@ public class XmlFormat implements IDoxFormat {
         dox.append("        <behavior name=\"").append(Sentence.fromCamelCase(behaviorName)).append("\" />\n");
     }
     
+    public void newBehavior(String behaviorName, Map<Phase, Long> timings) {
+        dox.append("        <behavior name=\"").append(Sentence.fromCamelCase(behaviorName)).append("\">\n");
+        for (Map.Entry<Phase, Long> timing : timings.entrySet()) {
+            dox.append("          <phase name=\"").append(timing.getKey().getName()).append("\" nanos=\"")
+                    .append(timing.getValue()).append("\" />\n");
+        }
+        dox.append("        </behavior>\n");
+    }
+
     public String suffix() {
         return "xml";
     }
@@ -16,20 +16,41 @@
 package jdave.util;
 
 import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import jdave.support.ClassCache;
+import jdave.support.Reflection;
 
 /**
  * @author Pekka Enberg
  * @author Juha Karemo
  */
 public class Fields {
+    private static final ClassCache<Map<String, Field>> publicFields = new ClassCache<Map<String, Field>>() {
+        @Override
+        protected Map<String, Field> compute(Class<?> type) {
+            return new ConcurrentHashMap<String, Field>();
+        }
+    };
+
     public static void set(Object object, String fieldName, Object value) {
         try {
-            object.getClass().getField(fieldName).set(object, value);
+            publicField(object.getClass(), fieldName).set(object, value);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
+
+    private static Field publicField(Class<?> type, String fieldName) throws NoSuchFieldException {
+        Map<String, Field> fields = publicFields.get(type);
+        Field field = fields.get(fieldName);
+        if (field == null) {
+            field = Reflection.accessible(type.getField(fieldName));
+            fields.put(fieldName, field);
+        }
+        return field;
+    }
     
     public static Object get(Object object, String fieldName) {
         try {
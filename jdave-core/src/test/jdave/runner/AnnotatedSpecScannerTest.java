@@ -16,13 +16,16 @@
 package jdave.runner;
 import java.lang.annotation.Annotation;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import jdave.runner.dummies.Dummy1;
 import jdave.runner.dummies.Dummy2;
+import jdave.runner.uninitialized.NotInitialized;
 import org.junit.Test;
 
 /**
@@ -65,4 +68,48 @@ public class AnnotatedSpecScannerTest {
         assertEquals(Arrays.asList("group1", "group2"), Arrays.asList(annotatedSpecs.get(Dummy1.class.getName())));
         assertEquals(Arrays.asList(Groups.DEFAULT), Arrays.asList(annotatedSpecs.get(Dummy2.class.getName())));
     }
+
+    @Test
+    public void testFindsSpecsFromJarFiles() throws Exception {
+        File jar = ScannerTest.jarOf("jdave/runner/dummies/Dummy1.class", "jdave/runner/dummies/Dummy2.class");
+        AnnotatedSpecScanner scanner = new AnnotatedSpecScanner(jar.getPath()) {
+            @Override
+            public boolean isInDefaultGroup(String classname, Annotation... annotations) {
+                return classname.equals(Dummy2.class.getName());
+            }
+        };
+        final Map<String, String[]> annotatedSpecs = new HashMap<String, String[]>();
+        scanner.forEach(new IAnnotatedSpecHandler() {
+            public void handle(String classname, String... groups) {
+                annotatedSpecs.put(classname, groups);
+            }
+        });
+        assertEquals(2, annotatedSpecs.size());
+        assertEquals(Arrays.asList("group1", "group2"), Arrays.asList(annotatedSpecs.get(Dummy1.class.getName())));
+        assertEquals(Arrays.asList(Groups.DEFAULT), Arrays.asList(annotatedSpecs.get(Dummy2.class.getName())));
+    }
+
+    @Test
+    public void testReadsSpecsFromClassFilesWithoutInitializingThem() throws Exception {
+        AnnotatedSpecScanner scanner = new AnnotatedSpecScanner("target/test-classes/jdave/runner/uninitialized") {
+            @Override
+            public boolean isInDefaultGroup(ClassFileInfo classFile) {
+                return classFile.getName().equals(NotInitialized.class.getName());
+            }
+
+            @Override
+            public boolean isInDefaultGroup(String classname, Annotation... annotations) {
+                throw new AssertionError("class file should be enough");
+            }
+        };
+        final Map<String, String[]> annotatedSpecs = new HashMap<String, String[]>();
+        scanner.forEach(new IAnnotatedSpecHandler() {
+            public void handle(String classname, String... groups) {
+                annotatedSpecs.put(classname, groups);
+            }
+        });
+        assertEquals(1, annotatedSpecs.size());
+        assertEquals(Arrays.asList(Groups.DEFAULT), Arrays.asList(annotatedSpecs.get(NotInitialized.class.getName())));
+        assertNull(System.getProperty(NotInitialized.INITIALIZED));
+    }
 }
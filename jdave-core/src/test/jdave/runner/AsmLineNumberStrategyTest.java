@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AsmLineNumberStrategyTest {
+    @Test
+    public void testKeepsOverloadedMethodsApart() throws Exception {
+        AsmLineNumberStrategy strategy = new AsmLineNumberStrategy(null);
+        int noArgs = strategy.firstLineNumber(Overloads.class.getMethod("method"), -1);
+        int oneArg = strategy.firstLineNumber(Overloads.class.getMethod("method", int.class), -1);
+        assertTrue(noArgs > 0);
+        assertTrue(oneArg > noArgs);
+    }
+
+    public static class Overloads {
+        public void method() {
+            System.out.println();
+        }
+
+        public void method(int i) {
+            System.out.println(i);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import jdave.ResultsAdapter;
+import jdave.Specification;
+
+/**
+ * Measures the per-behavior overhead of the runner. Prints the time of running
+ * a trivial behavior through {@link ExecutingBehavior} and the time of the same
+ * steps when every member is looked up reflectively for each behavior, as the
+ * runner did before members were resolved once per class.
+ * <p>
+ * Run with <code>java jdave.runner.BehaviorOverheadBenchmark [iterations]</code>.
+ */
+public class BehaviorOverheadBenchmark {
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Method behavior = EmptySpec.Context.class.getMethod("behavior");
+        for (int round = 0; round < 5; round++) {
+            long run = time(iterations, new ExecutingBehaviorRun(behavior));
+            long lookups = time(iterations, new PerBehaviorLookups(behavior));
+            System.out.println("round " + round + ": ExecutingBehavior.run " + run
+                    + " ns/behavior, previous uncached reflective path " + lookups
+                    + " ns/behavior");
+        }
+    }
+
+    private static long time(int iterations, Runnable task) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static class ExecutingBehaviorRun implements Runnable {
+        private final ExecutingBehavior behavior;
+        private final ResultsAdapter results = new ResultsAdapter();
+
+        ExecutingBehaviorRun(Method method) {
+            behavior = new ExecutingBehavior(method, EmptySpec.class, EmptySpec.Context.class);
+        }
+
+        public void run() {
+            behavior.run(results);
+        }
+    }
+
+    private static class PerBehaviorLookups implements Runnable {
+        private final Method method;
+
+        PerBehaviorLookups(Method method) {
+            this.method = method;
+        }
+
+        public void run() {
+            try {
+                EmptySpec spec = new EmptySpec();
+                Constructor<?> constructor = EmptySpec.Context.class.getDeclaredConstructor(EmptySpec.class);
+                Object context = constructor.newInstance(spec);
+                Object contextObject = context.getClass().getMethod("create").invoke(context);
+                spec.getClass().getField("be").set(spec, contextObject);
+                spec.getClass().getField("context").set(spec, contextObject);
+                method.invoke(context);
+                context.getClass().getMethod("destroy").invoke(context);
+                sink = context;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class EmptySpec extends Specification<Object> {
+        public class Context {
+            public Object create() {
+                return null;
+            }
+
+            public void behavior() {
+            }
+
+            public void destroy() {
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import jdave.Group;
+import jdave.runner.dummies.Dummy1;
+import jdave.runner.dummies.Dummy2;
+import jdave.runner.dummies.Other;
+
+import org.junit.Test;
+
+public class ClassFileInfoTest {
+    @Test
+    public void testReadsNameAndSuperclass() throws Exception {
+        ClassFileInfo classFile = read(ClassFileInfoTest.class);
+        assertEquals(ClassFileInfoTest.class.getName(), classFile.getName());
+        assertEquals(Object.class.getName(), classFile.getSuperclassName());
+        assertNull(read(Object.class).getSuperclassName());
+    }
+
+    @Test
+    public void testReadsArrayValuesOfAnnotations() throws Exception {
+        ClassFileInfo classFile = read(Dummy1.class);
+        assertTrue(classFile.isAnnotationPresent(Group.class.getName()));
+        assertEquals(Arrays.asList("group1", "group2"),
+                Arrays.asList((String[]) classFile.getAnnotationValue(Group.class.getName())));
+    }
+
+    @Test
+    public void testReadsAnnotationsWithoutValue() throws Exception {
+        ClassFileInfo classFile = read(Dummy2.class);
+        assertTrue(classFile.isAnnotationPresent(Other.class.getName()));
+        assertNull(classFile.getAnnotationValue(Other.class.getName()));
+        assertFalse(classFile.isAnnotationPresent(Group.class.getName()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidClassFiles() {
+        ClassFileInfo.read(new byte[] { 1, 2, 3 });
+    }
+
+    private ClassFileInfo read(Class<?> type) throws IOException {
+        InputStream in = ClassLoader.getSystemResourceAsStream(type.getName().replace('.', '/') + ".class");
+        try {
+            return ClassFileInfo.read(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdave.runner.dummies.Dummy1;
+import jdave.runner.dummies.Dummy2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiscoveryCacheTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("discovery", ".cache");
+        file.delete();
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void testReusesClassFilesOfUnchangedFilesAfterReload() throws Exception {
+        DiscoveryCache cache = new DiscoveryCache(file);
+        Map<String, String[]> specs = scan(cache);
+        assertEquals(0, cache.getHits());
+        cache.save();
+
+        DiscoveryCache reloaded = new DiscoveryCache(file);
+        Map<String, String[]> cachedSpecs = scan(reloaded);
+        assertEquals(4, reloaded.getHits());
+        assertEquals(specs.keySet(), cachedSpecs.keySet());
+        assertEquals(Arrays.asList("group1", "group2"), Arrays.asList(cachedSpecs.get(Dummy1.class.getName())));
+        assertEquals(Arrays.asList(Groups.DEFAULT), Arrays.asList(cachedSpecs.get(Dummy2.class.getName())));
+    }
+
+    @Test
+    public void testMissesChangedFiles() throws Exception {
+        DiscoveryCache cache = new DiscoveryCache(file);
+        cache.put(entry(1000, 10), null);
+        assertNotNull(cache.get(entry(1000, 10)));
+        assertNull(cache.get(entry(2000, 10)));
+        assertNull(cache.get(entry(1000, 20)));
+    }
+
+    @Test
+    public void testStartsEmptyIfCacheFileIsCorrupt() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+        DiscoveryCache cache = new DiscoveryCache(file);
+        scan(cache);
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testIgnoresCacheWhichCanNotBeWritten() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.close();
+        DiscoveryCache cache = new DiscoveryCache(new File(file, "discovery.cache"));
+        scan(cache);
+        cache.save();
+    }
+
+    private Map<String, String[]> scan(DiscoveryCache cache) {
+        AnnotatedSpecScanner scanner = new AnnotatedSpecScanner("target/test-classes/jdave/runner/dummies") {
+            @Override
+            public boolean isInDefaultGroup(ClassFileInfo classFile) {
+                return classFile.getName().equals(Dummy2.class.getName());
+            }
+
+            @Override
+            public boolean isInDefaultGroup(String classname, Annotation... annotations) {
+                return false;
+            }
+        };
+        scanner.setDiscoveryCache(cache);
+        final Map<String, String[]> specs = new HashMap<String, String[]>();
+        scanner.forEach(new IAnnotatedSpecHandler() {
+            public void handle(String classname, String... groups) {
+                specs.put(classname, groups);
+            }
+        });
+        return specs;
+    }
+
+    private ScannedEntry entry(long lastModified, long size) {
+        return new ScannedEntry("Foo.class", "classes/Foo.class", lastModified, size) {
+            @Override
+            InputStream open() throws IOException {
+                throw new IOException();
+            }
+        };
+    }
+}
@@ -18,6 +18,9 @@ package jdave.runner;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jdave.ExpectationFailedException;
 import jdave.ResultsAdapter;
@@ -95,6 +98,50 @@ public class ExecutingBehaviorTest extends MockSupport {
         Assert.assertEquals(ExceptionInInitializerError.class, occurredErrors.iterator().next().getClass());
     }
 
+    @Test
+    public void testReportsBehaviorWhichRunsOutOfTimeAsError() throws Exception {
+        Throwable error = errorOf(SpecWithTimeouts.class, "sleeps");
+        Assert.assertEquals(BehaviorTimeoutException.class, error.getClass());
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("sleeps timed out after 100 ms"));
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+        Assert.assertNull(errorOf(SpecWithTimeouts.class, "returns"));
+    }
+
+    @Test
+    public void testReportsDeadlockedBehaviorAsError() throws Exception {
+        Throwable error = errorOf(SpecWithTimeouts.class, "deadlocks");
+        Assert.assertEquals(BehaviorTimeoutException.class, error.getClass());
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("deadlocks deadlocked"));
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("\"deadlock-partner\" WAITING"));
+    }
+
+    @Test
+    public void testAbandonsBehaviorWhichIgnoresInterrupts() throws Exception {
+        Throwable error = errorOf(SpecWithTimeouts.class, "ignoresInterrupts");
+        Assert.assertEquals(BehaviorTimeoutException.class, error.getClass());
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("did not stop"));
+    }
+
+    @Test
+    public void testAbandonsIsolatedBehaviorWhichIgnoresInterrupts() throws Exception {
+        Throwable error = errorOf(IsolatedSpecWithTimeout.class, "ignoresInterrupts");
+        Assert.assertEquals(BehaviorTimeoutException.class, error.getClass());
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("did not stop"));
+    }
+
+    private Throwable errorOf(Class<? extends Specification<?>> specType, String behavior) throws Exception {
+        Class<?> contextType = specType.getClasses()[0];
+        final Collection<Throwable> occurredErrors = new HashSet<Throwable>();
+        new ExecutingBehavior(contextType.getMethod(behavior), specType, contextType).run(new ResultsAdapter() {
+            @Override
+            public void error(Method method, Throwable t) {
+                occurredErrors.add(t);
+            }
+        });
+        Assert.assertTrue(occurredErrors.size() <= 1);
+        return occurredErrors.isEmpty() ? null : occurredErrors.iterator().next();
+    }
+
     private void run(String expectedError) {
         final Collection<Throwable> occurredErrors = new HashSet<Throwable>();
         behavior.run(new ResultsAdapter() {
@@ -125,6 +172,75 @@ public class ExecutingBehaviorTest extends MockSupport {
         }
     }
     
+    public static class SpecWithTimeouts extends Specification<Void> {
+        public class Context {
+            @Timeout(100)
+            public void sleeps() throws InterruptedException {
+                Thread.sleep(60000);
+            }
+
+            @Timeout(100)
+            public void returns() {
+            }
+
+            @Timeout(100)
+            public void ignoresInterrupts() {
+                long end = System.currentTimeMillis() + 3000;
+                while (System.currentTimeMillis() < end) {
+                    Thread.interrupted();
+                }
+            }
+
+            @Timeout(100)
+            public void deadlocks() throws InterruptedException {
+                final Lock first = new ReentrantLock();
+                final Lock second = new ReentrantLock();
+                final CountDownLatch secondLocked = new CountDownLatch(1);
+                Thread other = new Thread("deadlock-partner") {
+                    @Override
+                    public void run() {
+                        second.lock();
+                        secondLocked.countDown();
+                        try {
+                            first.lockInterruptibly();
+                            first.unlock();
+                        } catch (InterruptedException e) {
+                        } finally {
+                            second.unlock();
+                        }
+                    }
+                };
+                other.setDaemon(true);
+                first.lock();
+                try {
+                    other.start();
+                    secondLocked.await();
+                    second.lockInterruptibly();
+                } finally {
+                    first.unlock();
+                    other.interrupt();
+                }
+            }
+        }
+    }
+
+    public static class IsolatedSpecWithTimeout extends Specification<Void> {
+        @Override
+        public boolean needsThreadLocalIsolation() {
+            return true;
+        }
+
+        public class Context {
+            @Timeout(100)
+            public void ignoresInterrupts() {
+                long end = System.currentTimeMillis() + 3000;
+                while (System.currentTimeMillis() < end) {
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
     public static class SpecWithConstructorThrowingError extends Specification<Void> {
         public SpecWithConstructorThrowingError() {
             throw new ExceptionInInitializerError(); 
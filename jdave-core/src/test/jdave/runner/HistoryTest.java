@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryTest {
+    private File file;
+    private History history;
+    private Map<String, Integer> behaviors = new HashMap<String, Integer>();
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("history", ".ser");
+        file.delete();
+        file.deleteOnExit();
+        history = new History(file);
+    }
+
+    @Test
+    public void testRemembersDurationsAndOutcomesAfterReload() {
+        history.record("FooSpec", "FooSpec$Empty", "isEmpty", 12, false);
+        history.record("FooSpec", "FooSpec$Full", "isFull", 30, true);
+        history.save();
+
+        History reloaded = new History(file);
+        assertEquals(12, reloaded.durationOf("FooSpec", "FooSpec$Empty", "isEmpty"));
+        assertEquals(-1, reloaded.durationOf("FooSpec", "FooSpec$Empty", "isFull"));
+        assertTrue(reloaded.hasFailed("FooSpec", "FooSpec$Full", "isFull"));
+        assertFalse(reloaded.hasFailed("FooSpec", "FooSpec$Empty", "isEmpty"));
+        assertTrue(reloaded.hasFailed("FooSpec"));
+        assertEquals(Long.valueOf(42), reloaded.getSpecDurations().get("FooSpec"));
+    }
+
+    @Test
+    public void testForgetsBehaviorsWhichWereNotRecordedInTheLastRunOfTheirSpec() {
+        history.record("FooSpec", "FooSpec$Empty", "isEmpty", 12, false);
+        history.record("FooSpec", "FooSpec$Empty", "removed", 30, true);
+        history.record("BarSpec", "BarSpec$Context", "behavior", 5, false);
+        history.save();
+
+        History next = new History(file);
+        next.record("FooSpec", "FooSpec$Empty", "isEmpty", 10, false);
+        next.save();
+
+        History reloaded = new History(file);
+        assertEquals(-1, reloaded.durationOf("FooSpec", "FooSpec$Empty", "removed"));
+        assertFalse(reloaded.hasFailed("FooSpec"));
+        assertEquals(Long.valueOf(10), reloaded.getSpecDurations().get("FooSpec"));
+        assertEquals(Long.valueOf(5), reloaded.getSpecDurations().get("BarSpec"));
+    }
+
+    @Test
+    public void testOrdersLongestSpecsFirst() {
+        history.record("Short", "Short$Context", "behavior", 10, false);
+        history.record("Long", "Long$Context", "behavior", 100, false);
+        behaviors.put("Short", 1);
+        behaviors.put("Long", 1);
+        behaviors.put("Unknown", 5);
+        assertEquals(Arrays.asList("Unknown", "Long", "Short"), history.order(behaviors, false));
+    }
+
+    @Test
+    public void testOrdersFailedSpecsFirstIfRequested() {
+        history.record("Short", "Short$Context", "behavior", 10, true);
+        history.record("Long", "Long$Context", "behavior", 100, false);
+        behaviors.put("Short", 1);
+        behaviors.put("Long", 1);
+        assertEquals(Arrays.asList("Long", "Short"), history.order(behaviors, false));
+        assertEquals(Arrays.asList("Short", "Long"), history.order(behaviors, true));
+    }
+
+    @Test
+    public void testIncompatibleFileGivesEmptyHistory() throws Exception {
+        FileWriter writer = new FileWriter(file);
+        writer.write("garbage");
+        writer.close();
+        assertTrue(new History(file).getSpecDurations().isEmpty());
+    }
+}
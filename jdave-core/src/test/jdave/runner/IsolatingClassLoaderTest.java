@@ -0,0 +1,50 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import jdave.Specification;
+import jdave.runner.dummies.Dummy1;
+
+import org.junit.Test;
+
+public class IsolatingClassLoaderTest {
+    private ClassLoader parent = getClass().getClassLoader();
+    private IsolatingClassLoader loader = new IsolatingClassLoader(parent);
+
+    @Test
+    public void testLoadsOwnCopiesOfJDaveAndClassDirectoryClasses() throws Exception {
+        Class<?> spec = loader.loadClass(Specification.class.getName());
+        assertNotSame(Specification.class, spec);
+        assertSame(loader, spec.getClassLoader());
+        assertSame(spec, loader.loadClass(Specification.class.getName()));
+        assertNotSame(Dummy1.class, loader.loadClass(Dummy1.class.getName()));
+    }
+
+    @Test
+    public void testSharesJdkAndLibraryClassesInJarsWithParent() throws Exception {
+        assertSame(String.class, loader.loadClass(String.class.getName()));
+        assertSame(Test.class, loader.loadClass(Test.class.getName()));
+    }
+
+    @Test
+    public void testIsolatedClassesSeeOwnCopiesOfOtherIsolatedClasses() throws Exception {
+        Class<?> spec = loader.loadClass(SpecRunnerTest.BooleanSpec.class.getName());
+        assertSame(loader.loadClass(Specification.class.getName()), spec.getSuperclass().getSuperclass());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
+
+import jdave.support.IO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LineNumberIndexTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("line-numbers", ".index", new File("target"));
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testKeepsLineNumbersOfParsedClassesBetweenRuns() throws Exception {
+        LineNumberIndex index = new LineNumberIndex(file);
+        AsmLineNumberStrategy strategy = new AsmLineNumberStrategy(index);
+        int classLine = strategy.firstLineNumber(Indexed.class, -1);
+        int methodLine = strategy.firstLineNumber(Indexed.class.getMethod("method"), -1);
+        index.save();
+
+        LineNumbers lineNumbers = new LineNumberIndex(file).get(Indexed.class.getName(), hashOf(Indexed.class));
+        assertNotNull(lineNumbers);
+        assertEquals(classLine, lineNumbers.firstClassLine());
+        assertEquals(Integer.valueOf(methodLine), lineNumbers.firstMethodLine("method()V"));
+    }
+
+    @Test
+    public void testDoesNotReturnLineNumbersOfChangedClass() throws Exception {
+        LineNumberIndex index = new LineNumberIndex(file);
+        new AsmLineNumberStrategy(index).firstLineNumber(Indexed.class, -1);
+        index.save();
+        assertNull(new LineNumberIndex(file).get(Indexed.class.getName(), "changed"));
+    }
+
+    @Test
+    public void testUsesIndexedLineNumbersInsteadOfParsing() throws Exception {
+        LineNumberIndex index = new LineNumberIndex(file);
+        index.put(Indexed.class.getName(), hashOf(Indexed.class), new LineNumbers(1000,
+                Collections.singletonMap("method()V", 1001)));
+        AsmLineNumberStrategy strategy = new AsmLineNumberStrategy(index);
+        assertEquals(1000, strategy.firstLineNumber(Indexed.class, -1));
+        assertEquals(1001, strategy.firstLineNumber(Indexed.class.getMethod("method"), -1));
+    }
+
+    @Test
+    public void testMergesEntriesSavedByOtherRuns() throws Exception {
+        LineNumberIndex index = new LineNumberIndex(file);
+        LineNumberIndex other = new LineNumberIndex(file);
+        index.put("a.A", "1", new LineNumbers(1, Collections.<String, Integer> emptyMap()));
+        other.put("b.B", "2", new LineNumbers(2, Collections.<String, Integer> emptyMap()));
+        index.save();
+        other.save();
+
+        LineNumberIndex merged = new LineNumberIndex(file);
+        assertEquals(1, merged.get("a.A", "1").firstClassLine());
+        assertEquals(2, merged.get("b.B", "2").firstClassLine());
+    }
+
+    @Test
+    public void testDropsEntriesWhichHaveNotBeenUsedForLong() throws Exception {
+        IO.write(file, LineNumberIndex.HEADER + "\nold.Old 1 0 1\n");
+        LineNumberIndex index = new LineNumberIndex(file);
+        index.put("a.A", "1", new LineNumbers(1, Collections.<String, Integer> emptyMap()));
+        index.save();
+
+        LineNumberIndex saved = new LineNumberIndex(file);
+        assertNull(saved.get("old.Old", "1"));
+        assertNotNull(saved.get("a.A", "1"));
+    }
+
+    @Test
+    public void testLeavesNoTemporaryFilesBehind() throws Exception {
+        LineNumberIndex index = new LineNumberIndex(file);
+        index.put("a.A", "1", new LineNumbers(1, Collections.<String, Integer> emptyMap()));
+        index.save();
+        for (String name : file.getAbsoluteFile().getParentFile().list()) {
+            assertFalse(name, name.startsWith(LineNumberIndex.FILENAME) && name.endsWith(".tmp"));
+        }
+    }
+
+    private String hashOf(Class<?> clazz) throws Exception {
+        InputStream in = clazz.getResourceAsStream("LineNumberIndexTest$Indexed.class");
+        try {
+            return LineNumberIndex.hash(IO.readBytes(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    public static class Indexed {
+        public void method() {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jdave.ResultsAdapter;
+import jdave.Specification;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSpecRunnerTest {
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> passed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        System.setProperty(SpecRunner.PARALLELISM, "4");
+        ParallelSpec.threads.clear();
+        ParallelSpec.latch = new CountDownLatch(2);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SpecRunner.PARALLELISM);
+    }
+
+    @Test
+    public void testNotifiesCallbackInDeclarationOrder() {
+        new SpecRunner().run(ParallelSpec.class, new RecordingVisitor());
+        assertEquals(Arrays.asList("onContext First", "onBehavior first", "onBehavior second",
+                "afterContext First", "onContext Second", "onBehavior third", "afterContext Second",
+                "onContext Sequential", "onBehavior fourth", "afterContext Sequential"), events);
+    }
+
+    @Test
+    public void testRunsBehaviorsOfParallelContextsConcurrently() {
+        new SpecRunner().run(ParallelSpec.class, new RecordingVisitor());
+        assertEquals(Arrays.asList("first", "second", "third", "fourth"), passed);
+        assertFalse(ParallelSpec.threads.get("first").equals(Thread.currentThread().getName()));
+        assertFalse(ParallelSpec.threads.get("third").equals(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testRunsContextWhichOptsOutInCallingThread() {
+        new SpecRunner().run(ParallelSpec.class, new RecordingVisitor());
+        assertEquals(Thread.currentThread().getName(), ParallelSpec.threads.get("fourth"));
+    }
+
+    @Test
+    public void testRunsEverythingInCallingThreadWhenParallelismIsOne() {
+        System.setProperty(SpecRunner.PARALLELISM, "1");
+        ParallelSpec.latch = new CountDownLatch(0);
+        new SpecRunner().run(ParallelSpec.class, new RecordingVisitor());
+        assertEquals(4, passed.size());
+        for (String thread : ParallelSpec.threads.values()) {
+            assertEquals(Thread.currentThread().getName(), thread);
+        }
+    }
+
+    @Test
+    public void testDoesNotRunBehaviorsWhichAreFilteredOut() {
+        new SpecRunner().run(ParallelSpec.class, new FilteringVisitor());
+        assertTrue(passed.isEmpty());
+        assertTrue(ParallelSpec.threads.isEmpty());
+    }
+
+    private class RecordingVisitor implements ISpecVisitor {
+        public void onContext(Context context) {
+            events.add("onContext " + context.getName());
+        }
+
+        public void afterContext(Context context) {
+            events.add("afterContext " + context.getName());
+        }
+
+        public void onBehavior(Behavior behavior) {
+            events.add("onBehavior " + behavior.getName());
+            behavior.run(new ResultsAdapter() {
+                @Override
+                public void expected(Method method) {
+                    passed.add(method.getName());
+                }
+            });
+        }
+    }
+
+    private class FilteringVisitor extends RecordingVisitor implements IBehaviorFilter {
+        public boolean shouldRun(Behavior behavior) {
+            return false;
+        }
+
+        @Override
+        public void onBehavior(Behavior behavior) {
+        }
+    }
+
+    @Parallel
+    public static class ParallelSpec extends Specification<Void> {
+        static Map<String, String> threads = Collections.synchronizedMap(new HashMap<String, String>());
+        static CountDownLatch latch;
+
+        private void ran(String behavior) {
+            threads.put(behavior, Thread.currentThread().getName());
+        }
+
+        private void awaitOther() throws InterruptedException {
+            latch.countDown();
+            specify(latch.await(5, TimeUnit.SECONDS));
+        }
+
+        public class First {
+            public void first() throws InterruptedException {
+                ran("first");
+                awaitOther();
+            }
+
+            public void second() {
+                ran("second");
+            }
+        }
+
+        public class Second {
+            public void third() throws InterruptedException {
+                ran("third");
+                awaitOther();
+            }
+        }
+
+        @Parallel(false)
+        public class Sequential {
+            public void fourth() {
+                ran("fourth");
+            }
+        }
+    }
+}
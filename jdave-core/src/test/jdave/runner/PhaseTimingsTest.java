@@ -0,0 +1,139 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import jdave.ExpectationFailedException;
+import jdave.Specification;
+
+import org.junit.Test;
+
+public class PhaseTimingsTest {
+    @Test
+    public void testReportsEachPhaseInOrderAroundTheResult() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        class Listener extends DummyBehaviorResults implements IPhaseListener {
+            @Override
+            public void expected(Method method) {
+                events.add("expected");
+            }
+
+            public void phase(Class<?> contextType, Method method, Phase phase, long nanos) {
+                assertEquals("behavior", method.getName());
+                events.add(phase.getName());
+            }
+        }
+        newBehavior().run(new Listener());
+        assertEquals(Arrays.asList("spec-create", "context-instantiation", "context-object-creation",
+                "behavior", "verify-mocks", "expected", "destroy"), events);
+    }
+
+    @Test
+    public void testReportsPhaseWhichFails() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        class Listener extends DummyBehaviorResults implements IPhaseListener {
+            @Override
+            public void error(Method method, Throwable t) {
+                events.add("error");
+            }
+
+            public void phase(Class<?> contextType, Method method, Phase phase, long nanos) {
+                events.add(phase.getName());
+            }
+        }
+        new ExecutingBehavior(TimedSpec.Context.class.getMethod("fails"), TimedSpec.class, TimedSpec.Context.class)
+                .run(new Listener());
+        assertEquals(Arrays.asList("spec-create", "context-instantiation", "context-object-creation",
+                "behavior", "error", "destroy"), events);
+    }
+
+    @Test
+    public void testSumsTimingsOfRepeatedRuns() throws Exception {
+        Method method = TimedSpec.Context.class.getMethod("behavior");
+        Class<?> context = TimedSpec.Context.class;
+        PhaseTimings timings = new PhaseTimings();
+        assertNull(timings.get(context, method));
+        assertEquals(-1, timings.total(context, method));
+        timings.phase(context, method, Phase.BEHAVIOR, 5);
+        timings.phase(context, method, Phase.BEHAVIOR, 7);
+        timings.phase(context, method, Phase.DESTROY, 1);
+        Map<Phase, Long> phases = timings.get(context, method);
+        assertEquals(Phase.values().length, phases.size());
+        assertEquals(Long.valueOf(12), phases.get(Phase.BEHAVIOR));
+        assertEquals(Long.valueOf(0), phases.get(Phase.SPEC_CREATE));
+        assertEquals(13, timings.total(context, method));
+    }
+
+    @Test
+    public void testKeepsTimingsOfInheritedBehaviorPerContext() throws Exception {
+        Method method = TimedSpec.Context.class.getMethod("behavior");
+        PhaseTimings timings = new PhaseTimings();
+        timings.phase(TimedSpec.Context.class, method, Phase.BEHAVIOR, 5);
+        timings.phase(TimedSpec.SubContext.class, method, Phase.BEHAVIOR, 7);
+        assertEquals(5, timings.total(TimedSpec.Context.class, method));
+        assertEquals(7, timings.total(TimedSpec.SubContext.class, method));
+    }
+
+    @Test
+    public void testRecordedResultsReplayTimings() throws Exception {
+        RecordedResults recorded = new RecordedResults();
+        newBehavior().run(recorded);
+        final boolean[] expected = new boolean[1];
+        class Target extends PhaseTimings implements IBehaviorResults {
+            public void expected(Method method) {
+                expected[0] = true;
+            }
+
+            public void unexpected(Method method, ExpectationFailedException e) {
+            }
+
+            public void error(Method method, Throwable t) {
+            }
+        }
+        Target target = new Target();
+        recorded.replay(target);
+        assertTrue(expected[0]);
+        assertEquals(Phase.values().length, target.get(TimedSpec.Context.class, TimedSpec.Context.class.getMethod("behavior")).size());
+    }
+
+    private ExecutingBehavior newBehavior() throws NoSuchMethodException {
+        return new ExecutingBehavior(TimedSpec.Context.class.getMethod("behavior"), TimedSpec.class,
+                TimedSpec.Context.class);
+    }
+
+    public static class TimedSpec extends Specification<Void> {
+        public class Context {
+            public void behavior() {
+            }
+
+            public void fails() {
+                throw new IllegalStateException();
+            }
+        }
+
+        public class SubContext extends Context {
+        }
+    }
+}
@@ -19,9 +19,15 @@ import static java.util.Collections.sort;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.Test;
 
@@ -33,10 +39,10 @@ public class ScannerTest {
     public void testFindsRecursivelyClasses() throws Exception {
         Scanner scanner = new Scanner(getClass().getProtectionDomain().getCodeSource().getLocation().getPath() +
                 "/jdave/runner/dummies");
-        final List<String> files = new ArrayList<String>();
-        scanner.forEach("class", new IFileHandler() {
-            public void handle(File file) {
-                files.add(file.getName());
+        final List<String> files = Collections.synchronizedList(new ArrayList<String>());
+        scanner.forEach("class", new IEntryHandler() {
+            public void handle(ScannedEntry entry) {
+                files.add(new File(entry.getPath()).getName());
             }
         });
         sort(files);
@@ -45,6 +51,37 @@ public class ScannerTest {
         assertEquals(expected, files);
     }
     
+    @Test
+    public void testFindsEntriesOfJarFiles() throws Exception {
+        File jar = jarOf("jdave/runner/dummies/Dummy1.class", "jdave/runner/dummies/sub/Dummy3.class",
+                "jdave/runner/ScannerTest.class", "META-INF/MANIFEST.MF");
+        assertEquals(Arrays.asList("jdave/runner/ScannerTest.class", "jdave/runner/dummies/Dummy1.class",
+                "jdave/runner/dummies/sub/Dummy3.class"), entries(new Scanner(jar.getPath())));
+        assertEquals(Arrays.asList("jdave/runner/dummies/Dummy1.class", "jdave/runner/dummies/sub/Dummy3.class"),
+                entries(new Scanner(jar.getPath() + "!/jdave/runner/dummies")));
+    }
+
+    @Test
+    public void testReadsContentsOfFilesInDirectories() throws Exception {
+        Scanner scanner = new Scanner(getClass().getProtectionDomain().getCodeSource().getLocation().getPath() +
+                "/jdave/runner/dummies");
+        final List<String> files = Collections.synchronizedList(new ArrayList<String>());
+        scanner.forEach("class", new IEntryHandler() {
+            public void handle(ScannedEntry entry) throws IOException {
+                InputStream in = entry.open();
+                try {
+                    assertEquals(0xCA, in.read());
+                } finally {
+                    in.close();
+                }
+                assertEquals(new File(entry.getPath()).length(), entry.size());
+                files.add(new File(entry.getPath()).getName());
+            }
+        });
+        sort(files);
+        assertEquals(Arrays.asList("Dummy1.class", "Dummy2.class", "Dummy3.class", "Other.class"), files);
+    }
+
     @Test
     /*
      * See http://www.laughingpanda.org/jira/browse/JDAVE-35
@@ -52,9 +89,44 @@ public class ScannerTest {
     public void testFindsFromDirectoryContainingSpaces() throws Exception {
         Scanner scanner = new Scanner(getClass().getProtectionDomain().getCodeSource().getLocation().getPath() +
                 "/jdave/runner/dir with spaces");
-        scanner.forEach("class", new IFileHandler() {
-            public void handle(File file) {
+        scanner.forEach("class", new IEntryHandler() {
+            public void handle(ScannedEntry entry) {
             }            
         });
     }
+
+    private List<String> entries(Scanner scanner) {
+        final List<String> entries = Collections.synchronizedList(new ArrayList<String>());
+        scanner.forEach("class", new IEntryHandler() {
+            public void handle(ScannedEntry entry) throws IOException {
+                entries.add(entry.getPath());
+            }
+        });
+        sort(entries);
+        return entries;
+    }
+
+    static File jarOf(String... entries) throws IOException {
+        File jar = File.createTempFile("specs", ".jar");
+        jar.deleteOnExit();
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                InputStream in = ScannerTest.class.getClassLoader().getResourceAsStream(entry);
+                if (in != null) {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    in.close();
+                }
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
 }
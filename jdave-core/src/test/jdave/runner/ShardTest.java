@@ -0,0 +1,105 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ShardTest {
+    private Map<String, Integer> behaviors = new HashMap<String, Integer>();
+
+    @Test
+    public void testEverySpecIsSelectedByExactlyOneShard() {
+        for (int i = 0; i < 25; i++) {
+            behaviors.put("Spec" + i, i % 7 + 1);
+        }
+        List<String> all = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            all.addAll(new Shard(i, 4).select(behaviors));
+        }
+        Collections.sort(all);
+        List<String> expected = new ArrayList<String>(behaviors.keySet());
+        Collections.sort(expected);
+        assertEquals(expected, all);
+    }
+
+    @Test
+    public void testBalancesShardsByBehaviorCounts() {
+        behaviors.put("A", 6);
+        behaviors.put("B", 3);
+        behaviors.put("C", 2);
+        behaviors.put("D", 1);
+        assertEquals(Arrays.asList("A"), new Shard(0, 2).select(behaviors));
+        assertEquals(Arrays.asList("B", "C", "D"), new Shard(1, 2).select(behaviors));
+    }
+
+    @Test
+    public void testBalancesShardsByHistoricalDurations() {
+        behaviors.put("A", 6);
+        behaviors.put("B", 3);
+        behaviors.put("C", 2);
+        Map<String, Long> durations = new HashMap<String, Long>();
+        durations.put("A", 10L);
+        durations.put("B", 90L);
+        Shard shard = new Shard(0, 2);
+        shard.addDurations(durations);
+        assertEquals(Arrays.asList("B"), shard.select(behaviors));
+    }
+
+    @Test
+    public void testReadsDurationsFromPropertiesFile() throws Exception {
+        File file = File.createTempFile("durations", ".properties");
+        file.deleteOnExit();
+        FileWriter writer = new FileWriter(file);
+        writer.write("jdave.FooSpec=120\njdave.BarSpec=unknown\n");
+        writer.close();
+        Map<String, Long> durations = Shard.readDurations(file);
+        assertEquals(1, durations.size());
+        assertEquals(Long.valueOf(120), durations.get("jdave.FooSpec"));
+    }
+
+    @Test
+    public void testWritesDurationsWhichCanBeReadBack() throws Exception {
+        File file = File.createTempFile("durations", ".properties");
+        file.deleteOnExit();
+        Map<String, Long> durations = new HashMap<String, Long>();
+        durations.put("jdave.FooSpec", 120L);
+        durations.put("jdave.BarSpec$Inner", 7L);
+        Shard.writeDurations(file, durations);
+        assertEquals(durations, Shard.readDurations(file));
+    }
+
+    @Test
+    public void testIsNotEnabledWithoutShardCount() {
+        assertTrue(Shard.fromSystemProperties() == null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndexMustBeLessThanCount() {
+        new Shard(2, 2);
+    }
+}
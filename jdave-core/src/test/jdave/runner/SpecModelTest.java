@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdave.Specification;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class SpecModelTest {
+    @Test
+    public void testIsBuiltOncePerSpecification() {
+        assertSame(SpecModel.of(ModelSpec.class), SpecModel.of(ModelSpec.class));
+    }
+
+    @Test
+    public void testContainsContextsInDeclarationOrder() {
+        List<String> names = new ArrayList<String>();
+        for (ContextModel context : SpecModel.of(ModelSpec.class).getContexts()) {
+            names.add(context.getName());
+        }
+        assertEquals(Arrays.asList("Second", "First"), names);
+    }
+
+    @Test
+    public void testContainsBehaviorsInDeclarationOrder() {
+        List<String> names = new ArrayList<String>();
+        for (Method behavior : SpecModel.of(ModelSpec.class).getContext(ModelSpec.First.class).getBehaviors()) {
+            names.add(behavior.getName());
+        }
+        assertEquals(Arrays.asList("b", "a"), names);
+    }
+
+    @Test
+    public void testResolvesFixtureMethods() throws Exception {
+        SpecModel model = SpecModel.of(ModelSpec.class);
+        assertNotNull(model.getOnceBefore());
+        assertNull(model.getOnceAfter());
+        assertNotNull(model.getContext(ModelSpec.Second.class).getDisposer());
+        assertNull(model.getContext(ModelSpec.First.class).getDisposer());
+        assertEquals(ModelSpec.class, model.getContext(ModelSpec.First.class).getConstructor()
+                .getParameterTypes()[0]);
+    }
+
+    @Test
+    public void testDoesNotContainIgnoredContexts() {
+        assertNull(SpecModel.of(ModelSpec.class).getContext(ModelSpec.IgnoredContext.class));
+    }
+
+    public static class ModelSpec extends Specification<Void> {
+        public static void onceBefore() {
+        }
+
+        public class Second {
+            public void behavior() {
+            }
+
+            public void destroy() {
+            }
+        }
+
+        public class First {
+            public void b() {
+            }
+
+            public void a() {
+            }
+        }
+
+        @Ignore
+        public class IgnoredContext {
+            public void behavior() {
+            }
+        }
+    }
+}
@@ -115,6 +115,41 @@ public class SpecRunnerTest {
         assertEquals(5, BooleanSpec.specDestroyCalled);
     }
 
+    @Test
+    public void testVisitsOnlyContextsWithBehaviorsAcceptedByFilter() throws Exception {
+        SpecVisitorAdapter visitor = new FilteringVisitor("shouldBeEqualToTrue");
+        runner.run(BooleanSpec.class, visitor);
+        assertEquals(Arrays.asList("shouldBeEqualToTrue"), methods);
+        assertEquals(Arrays.asList("TrueBoolean"), visitor.getContextNames());
+    }
+
+    @Test
+    public void testDoesNotRunSpecWithoutBehaviorsAcceptedByFilter() throws Exception {
+        BooleanSpec.onceBeforeCalled = 0;
+        SpecVisitorAdapter visitor = new FilteringVisitor("noSuchBehavior");
+        runner.run(BooleanSpec.class, visitor);
+        assertEquals(0, BooleanSpec.onceBeforeCalled);
+        assertTrue(visitor.getContextNames().isEmpty());
+    }
+
+    private class FilteringVisitor extends SpecVisitorAdapter implements IBehaviorFilter {
+        private final String behavior;
+
+        FilteringVisitor(String behavior) {
+            super(new ResultsAdapter() {
+                @Override
+                public void expected(Method method) {
+                    methods.add(method.getName());
+                }
+            });
+            this.behavior = behavior;
+        }
+
+        public boolean shouldRun(Behavior behavior) {
+            return behavior.getName().equals(this.behavior);
+        }
+    }
+
     @Test
     public void testShouldCallSpecDestroyEvenIfContextDestroyCrashes() {
         SpecWithCrashingContextDestroy.specDestroyCalled = 0;
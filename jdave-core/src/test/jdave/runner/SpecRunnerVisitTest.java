@@ -16,6 +16,7 @@
 package jdave.runner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import jdave.Specification;
 
 import org.junit.Test;
@@ -43,6 +44,24 @@ public class SpecRunnerVisitTest {
         assertEquals(visitedMethod.getClass(), VisitingBehavior.class);
     }
     
+    @Test
+    public void testVisitsContextsOfResolvedModel() throws Exception {
+        final SpecModel model = SpecModel.of(TestSpec.class);
+        runner.visit(model, new ISpecVisitor() {
+            public void onContext(Context context) {
+                assertSame(model.getContext(TestSpec.SomeContext.class), context.getModel());
+            }
+
+            public void onBehavior(Behavior method) {
+                visitedMethod = method;
+            }
+
+            public void afterContext(Context context) {
+            }
+        });
+        assertEquals("someMethod", visitedMethod.getName());
+    }
+
     public static class TestSpec extends Specification<Object> {
         public class SomeContext {
             public Object create() {
@@ -43,7 +43,36 @@ public class ThreadLocalIsolationTest {
         }));
         assertEquals(2, methods.size());
     }
-    
+
+    @Test
+    public void testInheritableThreadLocalsAreIsolatedBetweenBehaviorMethods() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            new SpecRunner().run(InheritableSpec.class, new SpecVisitorAdapter(new ResultsAdapter() {
+                @Override
+                public void expected(Method method) {
+                    methods.add(method.getName());
+                }
+            }));
+        }
+        assertEquals(4, methods.size());
+    }
+
+    @Test
+    public void testPooledThreadsDoNotInheritThreadLocalsOfTheRunner() throws Exception {
+        IsolatedThreads threads = new IsolatedThreads();
+        if (!threads.canClearThreadLocals()) {
+            return;
+        }
+        final ThreadLocal<Object> threadLocal = new InheritableThreadLocal<Object>();
+        threadLocal.set(new Object());
+        threads.run(new Runnable() {
+            public void run() {
+                methods.add(String.valueOf(threadLocal.get()));
+            }
+        }, 0);
+        assertEquals("[null]", methods.toString());
+    }
+
     public static class TestSpec extends Specification<Object> {
         private static ThreadLocal<Object> threadLocal = new ThreadLocal<Object>();
         
@@ -73,5 +102,26 @@ public class ThreadLocalIsolationTest {
                 threadLocal.set(new Object());
             }
         }
-    }    
+    }
+
+    public static class InheritableSpec extends Specification<Object> {
+        private static ThreadLocal<Object> threadLocal = new InheritableThreadLocal<Object>();
+
+        @Override
+        public boolean needsThreadLocalIsolation() {
+            return true;
+        }
+
+        public class Context1 {
+            public void inheritableThreadLocalIsNull() {
+                specify(threadLocal.get(), should.equal(null));
+                threadLocal.set(new Object());
+            }
+
+            public void inheritableThreadLocalIsStillNull() {
+                specify(threadLocal.get(), should.equal(null));
+                threadLocal.set(new Object());
+            }
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.runner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jdave.ResultsAdapter;
+import jdave.SpecVisitorAdapter;
+import jdave.Specification;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+    private final List<String> passed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        System.setProperty(SpecRunner.THREADS, VirtualThreads.VIRTUAL);
+        System.setProperty(SpecRunner.PARALLELISM, "2");
+        ThreadSpec.virtual.clear();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SpecRunner.THREADS);
+        System.clearProperty(SpecRunner.PARALLELISM);
+    }
+
+    @Test
+    public void testRunsParallelBehaviorsOnVirtualThreadsWhenSupported() {
+        run(ThreadSpec.class);
+        assertEquals(2, passed.size());
+        assertEquals(Collections.nCopies(2, VirtualThreads.isSupported()), ThreadSpec.virtual);
+    }
+
+    @Test
+    public void testRunsParallelBehaviorsOnVirtualThreadsWithoutParallelism() {
+        System.clearProperty(SpecRunner.PARALLELISM);
+        run(ThreadSpec.class);
+        assertEquals(2, passed.size());
+        assertEquals(Collections.nCopies(2, VirtualThreads.isSupported()), ThreadSpec.virtual);
+    }
+
+    @Test
+    public void testRunsIsolatedBehaviorsOnVirtualThreadsWhenSupported() {
+        run(IsolatedThreadSpec.class);
+        assertEquals(2, passed.size());
+        assertEquals(Collections.nCopies(2, VirtualThreads.isSupported()), ThreadSpec.virtual);
+    }
+
+    private void run(Class<? extends Specification<?>> spec) {
+        new SpecRunner().run(spec, new SpecVisitorAdapter(new ResultsAdapter() {
+            @Override
+            public void expected(Method method) {
+                passed.add(method.getName());
+            }
+        }));
+    }
+
+    @Parallel
+    public static class ThreadSpec extends Specification<Void> {
+        static List<Boolean> virtual = Collections.synchronizedList(new ArrayList<Boolean>());
+
+        void recordThread() throws Exception {
+            Method isVirtual;
+            try {
+                isVirtual = Thread.class.getMethod("isVirtual");
+            } catch (NoSuchMethodException e) {
+                virtual.add(false);
+                return;
+            }
+            virtual.add((Boolean) isVirtual.invoke(Thread.currentThread()));
+        }
+
+        public class Context {
+            public void first() throws Exception {
+                recordThread();
+            }
+
+            public void second() throws Exception {
+                recordThread();
+            }
+        }
+    }
+
+    @Parallel(false)
+    public static class IsolatedThreadSpec extends ThreadSpec {
+        @Override
+        public boolean needsThreadLocalIsolation() {
+            return true;
+        }
+    }
+}
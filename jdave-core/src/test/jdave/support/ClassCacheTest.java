@@ -0,0 +1,138 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ClassCacheTest {
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    public void computesValueOnce() {
+        ClassCache<String> cache = new ClassCache<String>() {
+            @Override
+            protected String compute(Class<?> type) {
+                computations.incrementAndGet();
+                return type.getSimpleName();
+            }
+        };
+        assertEquals("String", cache.get(String.class));
+        assertEquals("String", cache.get(String.class));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void cachesNull() {
+        ClassCache<String> cache = new ClassCache<String>() {
+            @Override
+            protected String compute(Class<?> type) {
+                computations.incrementAndGet();
+                return null;
+            }
+        };
+        assertNull(cache.get(String.class));
+        assertNull(cache.get(String.class));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedClassesWhenFull() {
+        ClassCache<String> cache = new ClassCache<String>(2) {
+            @Override
+            protected String compute(Class<?> type) {
+                computations.incrementAndGet();
+                return type.getSimpleName();
+            }
+        };
+        cache.get(String.class);
+        cache.get(Integer.class);
+        cache.get(String.class);
+        cache.get(Long.class);
+        assertEquals(2, cache.size());
+        cache.get(String.class);
+        assertEquals(3, computations.get());
+        cache.get(Integer.class);
+        assertEquals(4, computations.get());
+    }
+
+    @Test
+    public void doesNotCacheFailures() {
+        ClassCache<String> cache = new ClassCache<String>() {
+            @Override
+            protected String compute(Class<?> type) {
+                if (computations.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return type.getSimpleName();
+            }
+        };
+        try {
+            cache.get(String.class);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals("String", cache.get(String.class));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void concurrentMissesWaitForTheFirstComputation() throws Exception {
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ClassCache<String> cache = new ClassCache<String>() {
+            @Override
+            protected String compute(Class<?> type) {
+                computations.incrementAndGet();
+                computing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return type.getSimpleName();
+            }
+        };
+        final String[] values = new String[2];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    values[index] = cache.get(String.class);
+                }
+            };
+        }
+        threads[0].start();
+        computing.await();
+        threads[1].start();
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("String", values[0]);
+        assertEquals("String", values[1]);
+        assertEquals(1, computations.get());
+    }
+}
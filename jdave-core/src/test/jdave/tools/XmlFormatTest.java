@@ -15,6 +15,11 @@
  */
 package jdave.tools;
 
+import java.lang.reflect.Method;
+
+import jdave.runner.Phase;
+import jdave.runner.PhaseTimings;
+
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JMock;
@@ -48,4 +53,34 @@ public class XmlFormatTest {
         }});
         dox.generate(StackSpec.class, new XmlFormat());
     }
+
+    @Test
+    public void testFormatsPhaseTimingsWhenGiven() throws Exception {
+        PhaseTimings timings = new PhaseTimings();
+        Method method = StackSpec.FullStack.class.getMethod("complainsOnPush");
+        for (Phase phase : Phase.values()) {
+            timings.phase(StackSpec.FullStack.class, method, phase, phase.ordinal() + 1);
+        }
+        final String expectedOutput = 
+            "<specification name=\"StackSpec\" fqn=\"jdave.tools.StackSpec\">\n" +
+            "  <contexts>\n" +
+            "    <context name=\"Full stack\">\n" +
+            "      <behaviors>\n" +
+            "        <behavior name=\"complains on push\">\n" +
+            "          <phase name=\"spec-create\" nanos=\"1\" />\n" +
+            "          <phase name=\"context-instantiation\" nanos=\"2\" />\n" +
+            "          <phase name=\"context-object-creation\" nanos=\"3\" />\n" +
+            "          <phase name=\"behavior\" nanos=\"4\" />\n" +
+            "          <phase name=\"verify-mocks\" nanos=\"5\" />\n" +
+            "          <phase name=\"destroy\" nanos=\"6\" />\n" +
+            "        </behavior>\n" +
+            "      </behaviors>\n" +
+            "    </context>\n" +
+            "  </contexts>\n" +
+            "</specification>\n";
+        context.checking(new Expectations() {{ 
+            one(doxStore).store("StackSpec", "xml", expectedOutput);
+        }});
+        dox.generate(StackSpec.class, new XmlFormat(), timings);
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.jfr;
+
+import jdave.runner.ITracer;
+import jdave.runner.Trace;
+import jdk.jfr.EventType;
+
+/**
+ * Records the spec lifecycle as Java Flight Recorder events. Loaded by
+ * <code>jdave.runner.Tracing</code> when this module is on the classpath.
+ * Events are only created while a recording has them enabled.
+ */
+public class FlightRecorderTracer implements ITracer {
+    private static final EventType[] types = new EventType[Trace.values().length];
+
+    static {
+        for (Trace trace : Trace.values()) {
+            types[trace.ordinal()] = EventType.getEventType(eventClass(trace));
+        }
+    }
+
+    public Object begin(Trace trace) {
+        if (!types[trace.ordinal()].isEnabled()) {
+            return null;
+        }
+        JDaveEvent event = newEvent(trace);
+        event.begin();
+        return event;
+    }
+
+    public void end(Object e, String spec, String context, String behavior, String detail) {
+        JDaveEvent event = (JDaveEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.spec = spec;
+            event.context = context;
+            event.behavior = behavior;
+            event.setDetail(detail);
+            event.commit();
+        }
+    }
+
+    private static Class<? extends JDaveEvent> eventClass(Trace trace) {
+        switch (trace) {
+        case SPEC:
+            return SpecEvent.class;
+        case CONTEXT:
+            return ContextEvent.class;
+        case BEHAVIOR:
+            return BehaviorEvent.class;
+        case PHASE:
+            return PhaseEvent.class;
+        default:
+            return SpecdoxEvent.class;
+        }
+    }
+
+    private JDaveEvent newEvent(Trace trace) {
+        switch (trace) {
+        case SPEC:
+            return new SpecEvent();
+        case CONTEXT:
+            return new ContextEvent();
+        case BEHAVIOR:
+            return new BehaviorEvent();
+        case PHASE:
+            return new PhaseEvent();
+        default:
+            return new SpecdoxEvent();
+        }
+    }
+}
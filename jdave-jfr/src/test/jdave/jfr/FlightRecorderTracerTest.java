@@ -0,0 +1,169 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdave.ExpectationFailedException;
+import jdave.Specification;
+import jdave.runner.Behavior;
+import jdave.runner.Context;
+import jdave.runner.IBehaviorResults;
+import jdave.runner.ISpecVisitor;
+import jdave.runner.SpecRunner;
+import jdave.runner.Trace;
+import jdave.runner.Tracing;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+public class FlightRecorderTracerTest {
+    @Test
+    public void testIsTheDefaultTracer() {
+        assertEquals(FlightRecorderTracer.class, Tracing.getTracer().getClass());
+    }
+
+    @Test
+    public void testDoesNotCreateEventsWithoutRecording() {
+        assertEquals(null, new FlightRecorderTracer().begin(Trace.BEHAVIOR));
+    }
+
+    @Test
+    public void testRecordsSpecLifecycle() throws Exception {
+        File file = File.createTempFile("jdave", ".jfr");
+        try {
+            Recording recording = new Recording();
+            recording.enable("jdave.Spec");
+            recording.enable("jdave.Context");
+            recording.enable("jdave.Behavior");
+            recording.enable("jdave.BehaviorPhase");
+            recording.start();
+            new SpecRunner().run(RecordedSpec.class, new ISpecVisitor() {
+                public void onContext(Context context) {
+                }
+
+                public void afterContext(Context context) {
+                }
+
+                public void onBehavior(Behavior behavior) {
+                    behavior.run(new IBehaviorResults() {
+                        public void expected(Method method) {
+                        }
+
+                        public void unexpected(Method method, ExpectationFailedException e) {
+                        }
+
+                        public void error(Method method, Throwable t) {
+                        }
+                    });
+                }
+            });
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+
+            List<String> events = new ArrayList<String>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+                String name = event.getEventType().getName();
+                assertEquals(RecordedSpec.class.getName(), event.getString("spec"));
+                if (name.equals("jdave.Behavior")) {
+                    events.add(event.getString("context") + "." + event.getString("behavior") + "="
+                            + event.getString("outcome"));
+                } else if (name.equals("jdave.BehaviorPhase")) {
+                    events.add(event.getString("behavior") + ":" + event.getString("phase"));
+                } else {
+                    events.add(name);
+                }
+            }
+            assertTrue(events.toString(), events.contains("jdave.Spec"));
+            assertTrue(events.toString(), events.contains("jdave.Context"));
+            assertTrue(events.toString(), events.contains("Context.passes=expected"));
+            assertTrue(events.toString(), events.contains("Context.fails=unexpected"));
+            assertTrue(events.toString(), events.contains("passes:verify-mocks"));
+            assertTrue(events.toString(), events.contains("fails:destroy"));
+            assertTrue(events.toString(), events.contains("DestroyFails.passes=error"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEndsSpecAndContextEventsWhenVisitorThrows() throws Exception {
+        File file = File.createTempFile("jdave", ".jfr");
+        try {
+            Recording recording = new Recording();
+            recording.enable("jdave.Spec");
+            recording.enable("jdave.Context");
+            recording.start();
+            try {
+                new SpecRunner().run(RecordedSpec.class, new ISpecVisitor() {
+                    public void onContext(Context context) {
+                    }
+
+                    public void afterContext(Context context) {
+                    }
+
+                    public void onBehavior(Behavior behavior) {
+                        throw new IllegalStateException();
+                    }
+                });
+            } catch (IllegalStateException expected) {
+            }
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+
+            List<String> events = new ArrayList<String>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+                events.add(event.getEventType().getName());
+            }
+            assertTrue(events.toString(), events.contains("jdave.Spec"));
+            assertTrue(events.toString(), events.contains("jdave.Context"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public static class RecordedSpec extends Specification<Void> {
+        public class Context {
+            public void passes() {
+                specify(true);
+            }
+
+            public void fails() {
+                specify(false);
+            }
+        }
+
+        public class DestroyFails {
+            public void passes() {
+                specify(true);
+            }
+
+            public void destroy() {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
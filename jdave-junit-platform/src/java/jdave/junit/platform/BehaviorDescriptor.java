@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import java.lang.reflect.Method;
+
+import jdave.ExpectationFailedException;
+import jdave.Specification;
+import jdave.runner.ExecutingBehavior;
+import jdave.runner.IBehaviorResults;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+/**
+ * A behavior, run as an {@link ExecutingBehavior}. Unexpected results and
+ * errors are rethrown for the platform to report.
+ */
+class BehaviorDescriptor extends AbstractTestDescriptor implements Node<JDaveEngineExecutionContext> {
+    static final String SEGMENT = "behavior";
+    private final Class<? extends Specification<?>> specType;
+    private final Class<?> contextType;
+    private final Method method;
+
+    BehaviorDescriptor(UniqueId parentId, Class<? extends Specification<?>> specType, Class<?> contextType,
+            Method method) {
+        super(parentId.append(SEGMENT, method.getName()), method.getName(), MethodSource.from(contextType, method));
+        this.specType = specType;
+        this.contextType = contextType;
+        this.method = method;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.TEST;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return Descriptors.executionModeOf(specType, contextType);
+    }
+
+    @Override
+    public JDaveEngineExecutionContext execute(JDaveEngineExecutionContext context,
+            DynamicTestExecutor dynamicTestExecutor) throws Exception {
+        Results results = new Results();
+        new ExecutingBehavior(method, specType, contextType).run(results);
+        results.rethrow();
+        return context;
+    }
+
+    private static class Results implements IBehaviorResults {
+        private Throwable failure;
+
+        public void expected(Method method) {
+        }
+
+        public void unexpected(Method method, ExpectationFailedException e) {
+            failure = e;
+        }
+
+        public void error(Method method, Throwable t) {
+            failure = t;
+        }
+
+        void rethrow() throws Exception {
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+}
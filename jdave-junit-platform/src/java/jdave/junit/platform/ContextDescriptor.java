@@ -0,0 +1,57 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import java.util.Set;
+
+import jdave.Specification;
+import jdave.runner.ContextModel;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+/**
+ * A context of a specification.
+ */
+class ContextDescriptor extends AbstractTestDescriptor implements Node<JDaveEngineExecutionContext> {
+    static final String SEGMENT = "context";
+    private final Class<? extends Specification<?>> specType;
+    private final ContextModel model;
+
+    ContextDescriptor(UniqueId parentId, Class<? extends Specification<?>> specType, ContextModel model) {
+        super(parentId.append(SEGMENT, model.getName()), model.getName(), ClassSource.from(model.getContextType()));
+        this.specType = specType;
+        this.model = model;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return Descriptors.executionModeOf(specType, model.getContextType());
+    }
+
+    @Override
+    public Set<ExclusiveResource> getExclusiveResources() {
+        return Descriptors.exclusiveResourcesOf(model.getContextType());
+    }
+}
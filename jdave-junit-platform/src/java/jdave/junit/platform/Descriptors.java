@@ -0,0 +1,58 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jdave.runner.Parallel;
+
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource.LockMode;
+import org.junit.platform.engine.support.hierarchical.Node.ExecutionMode;
+
+/**
+ * Maps JDave and engine annotations to the platform's execution model.
+ */
+final class Descriptors {
+    private Descriptors() {
+    }
+
+    static Set<ExclusiveResource> exclusiveResourcesOf(Class<?> type) {
+        ResourceLock lock = type.getAnnotation(ResourceLock.class);
+        if (lock == null) {
+            return Collections.emptySet();
+        }
+        Set<ExclusiveResource> resources = new LinkedHashSet<>();
+        for (String key : lock.value()) {
+            resources.add(new ExclusiveResource(key, lock.readOnly() ? LockMode.READ : LockMode.READ_WRITE));
+        }
+        return resources;
+    }
+
+    /**
+     * Behaviors run concurrently only in contexts which JDave would run in
+     * parallel too, see {@link Parallel}.
+     */
+    static ExecutionMode executionModeOf(Class<?> specType, Class<?> contextType) {
+        Parallel parallel = contextType.getAnnotation(Parallel.class);
+        if (parallel == null) {
+            parallel = specType.getAnnotation(Parallel.class);
+        }
+        return parallel != null && parallel.value() ? ExecutionMode.CONCURRENT : ExecutionMode.SAME_THREAD;
+    }
+}
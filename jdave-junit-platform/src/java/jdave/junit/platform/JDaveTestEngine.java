@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import java.util.Optional;
+
+import jdave.IStringComparisonFailure;
+import jdave.Specification;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.config.PrefixedConfigurationParameters;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
+import org.junit.platform.engine.support.discovery.EngineDiscoveryRequestResolver;
+import org.junit.platform.engine.support.hierarchical.ForkJoinPoolHierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestEngine;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * A JUnit Platform engine which discovers and runs JDave specifications,
+ * without the <code>@RunWith(JDaveRunner.class)</code> annotation.
+ * <p>
+ * Specs may run in parallel when configuration parameter
+ * <code>jdave.execution.parallel.enabled</code> is <code>true</code>. The
+ * pool is configured with the platform's parallel execution parameters
+ * prefixed by <code>jdave.execution.parallel.config.</code>, for example
+ * <code>jdave.execution.parallel.config.strategy=fixed</code>. Behaviors of
+ * a spec run concurrently only if the spec or context is {@link
+ * jdave.runner.Parallel}, and {@link ResourceLock} keeps specs which share
+ * resources apart.
+ */
+public class JDaveTestEngine extends HierarchicalTestEngine<JDaveEngineExecutionContext> {
+    public static final String ID = "jdave";
+    public static final String PARALLEL = "jdave.execution.parallel.enabled";
+    public static final String PARALLEL_CONFIG_PREFIX = "jdave.execution.parallel.config.";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public Optional<String> getGroupId() {
+        return Optional.of("org.jdave");
+    }
+
+    @Override
+    public Optional<String> getArtifactId() {
+        return Optional.of("jdave-junit-platform");
+    }
+
+    @Override
+    public TestDescriptor discover(EngineDiscoveryRequest request, UniqueId uniqueId) {
+        EngineDescriptor engine = new EngineDescriptor(uniqueId, "JDave");
+        EngineDiscoveryRequestResolver.<EngineDescriptor> builder()
+                .addClassContainerSelectorResolver(SpecSelectorResolver::isSpec)
+                .addSelectorResolver(new SpecSelectorResolver())
+                .build()
+                .resolve(request, engine);
+        return engine;
+    }
+
+    @Override
+    protected HierarchicalTestExecutorService createExecutorService(ExecutionRequest request) {
+        ConfigurationParameters parameters = request.getConfigurationParameters();
+        if (parameters.getBoolean(PARALLEL).orElse(false)) {
+            return new ForkJoinPoolHierarchicalTestExecutorService(new PrefixedConfigurationParameters(parameters,
+                    PARALLEL_CONFIG_PREFIX));
+        }
+        return super.createExecutorService(request);
+    }
+
+    @Override
+    protected JDaveEngineExecutionContext createExecutionContext(ExecutionRequest request) {
+        Specification.setStringComparisonFailure(new IStringComparisonFailure() {
+            public void fail(String message, String expected, String actual) {
+                throw new AssertionFailedError(message, expected, actual);
+            }
+        });
+        return new JDaveEngineExecutionContext();
+    }
+}
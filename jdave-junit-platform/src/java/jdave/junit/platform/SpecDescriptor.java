@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import jdave.runner.SpecModel;
+import jdave.runner.Trace;
+import jdave.runner.Tracing;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+/**
+ * A specification. Runs its <code>onceBefore</code> and
+ * <code>onceAfter</code> methods around its contexts, ignoring their
+ * failures just like <code>SpecRunner</code> does.
+ */
+class SpecDescriptor extends AbstractTestDescriptor implements Node<JDaveEngineExecutionContext> {
+    static final String SEGMENT = "spec";
+    private final SpecModel model;
+    private Object event;
+
+    SpecDescriptor(UniqueId parentId, SpecModel model) {
+        super(parentId.append(SEGMENT, model.getSpecType().getName()), model.getSpecType().getSimpleName(),
+                ClassSource.from(model.getSpecType()));
+        this.model = model;
+    }
+
+    SpecModel getModel() {
+        return model;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public JDaveEngineExecutionContext before(JDaveEngineExecutionContext context) {
+        event = Tracing.getTracer().begin(Trace.SPEC);
+        invoke(model.getOnceBefore());
+        return context;
+    }
+
+    @Override
+    public void after(JDaveEngineExecutionContext context) {
+        invoke(model.getOnceAfter());
+        if (event != null) {
+            Tracing.getTracer().end(event, model.getSpecType().getName(), null, null, null);
+        }
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return ExecutionMode.CONCURRENT;
+    }
+
+    @Override
+    public Set<ExclusiveResource> getExclusiveResources() {
+        return Descriptors.exclusiveResourcesOf(model.getSpecType());
+    }
+
+    private void invoke(Method method) {
+        if (method != null) {
+            try {
+                method.invoke(null);
+            } catch (Exception e) {
+            }
+        }
+    }
+}
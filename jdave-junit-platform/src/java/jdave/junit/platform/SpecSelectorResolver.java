@@ -0,0 +1,217 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import static java.util.Collections.singletonList;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectNestedClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectNestedMethod;
+import static org.junit.platform.engine.support.discovery.SelectorResolver.Resolution.unresolved;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jdave.Specification;
+import jdave.runner.ContextModel;
+import jdave.runner.SpecModel;
+
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.discovery.NestedClassSelector;
+import org.junit.platform.engine.discovery.NestedMethodSelector;
+import org.junit.platform.engine.discovery.UniqueIdSelector;
+import org.junit.platform.engine.support.discovery.SelectorResolver;
+
+/**
+ * Resolves specs from class selectors, contexts from nested class selectors
+ * and behaviors from method selectors. Classpath roots and packages are
+ * turned into class selectors by the platform. Only the selected parts of a
+ * spec are added, and nothing is visited beyond the resolved
+ * {@link SpecModel}.
+ * <p>
+ * Specs annotated with JUnit 4's <code>@RunWith</code>, such as
+ * <code>@RunWith(JDaveRunner.class)</code>, are left to the vintage engine so
+ * that they are not run twice.
+ */
+class SpecSelectorResolver implements SelectorResolver {
+    private static final String RUN_WITH = "org.junit.runner.RunWith";
+
+    static boolean isSpec(Class<?> type) {
+        int modifiers = type.getModifiers();
+        return Specification.class.isAssignableFrom(type) && Modifier.isPublic(modifiers)
+                && !Modifier.isAbstract(modifiers) && (!type.isMemberClass() || Modifier.isStatic(modifiers))
+                && !isRunWith(type);
+    }
+
+    private static boolean isRunWith(Class<?> type) {
+        for (Annotation annotation : type.getAnnotations()) {
+            if (annotation.annotationType().getName().equals(RUN_WITH)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isContext(Class<?> type) {
+        return type.isMemberClass() && !Modifier.isStatic(type.getModifiers()) && isSpec(type.getDeclaringClass());
+    }
+
+    @Override
+    public Resolution resolve(ClassSelector selector, Context context) {
+        Class<?> type = selector.getJavaClass();
+        if (isSpec(type)) {
+            return resolveSpec(specType(type), context);
+        }
+        if (isContext(type)) {
+            return resolveContext(specType(type.getDeclaringClass()), type, context);
+        }
+        return unresolved();
+    }
+
+    @Override
+    public Resolution resolve(NestedClassSelector selector, Context context) {
+        List<Class<?>> enclosing = selector.getEnclosingClasses();
+        Class<?> specType = enclosing.get(enclosing.size() - 1);
+        if (isSpec(specType)) {
+            return resolveContext(specType(specType), selector.getNestedClass(), context);
+        }
+        return unresolved();
+    }
+
+    @Override
+    public Resolution resolve(MethodSelector selector, Context context) {
+        Class<?> type = selector.getJavaClass();
+        if (isContext(type)) {
+            return resolveBehavior(specType(type.getDeclaringClass()), type, selector.getMethodName(), context);
+        }
+        return unresolved();
+    }
+
+    @Override
+    public Resolution resolve(NestedMethodSelector selector, Context context) {
+        List<Class<?>> enclosing = selector.getEnclosingClasses();
+        Class<?> specType = enclosing.get(enclosing.size() - 1);
+        if (isSpec(specType)) {
+            return resolveBehavior(specType(specType), selector.getNestedClass(), selector.getMethodName(), context);
+        }
+        return unresolved();
+    }
+
+    @Override
+    public Resolution resolve(UniqueIdSelector selector, Context context) {
+        List<UniqueId.Segment> segments = selector.getUniqueId().getSegments();
+        if (segments.size() < 2 || !segments.get(0).getValue().equals(JDaveTestEngine.ID)
+                || !segments.get(1).getType().equals(SpecDescriptor.SEGMENT)) {
+            return unresolved();
+        }
+        Optional<Class<?>> type = ReflectionSupport.tryToLoadClass(segments.get(1).getValue()).toOptional();
+        if (!type.isPresent() || !isSpec(type.get())) {
+            return unresolved();
+        }
+        Class<? extends Specification<?>> specType = specType(type.get());
+        if (segments.size() == 2) {
+            return Resolution.selectors(singleton(selectClass(specType)));
+        }
+        ContextModel contextModel = contextNamed(specType, segments.get(2).getValue());
+        if (contextModel == null) {
+            return unresolved();
+        }
+        if (segments.size() == 3) {
+            return Resolution.selectors(singleton(selectNestedClass(singletonList(specType),
+                    contextModel.getContextType())));
+        }
+        return Resolution.selectors(singleton(selectNestedMethod(singletonList(specType),
+                contextModel.getContextType(), segments.get(3).getValue())));
+    }
+
+    private Resolution resolveSpec(Class<? extends Specification<?>> specType, Context context) {
+        SpecModel model = SpecModel.of(specType);
+        return context.addToParent(parent -> Optional.of(new SpecDescriptor(parent.getUniqueId(), model)))
+                .map(spec -> Resolution.match(Match.exact(spec, () -> {
+                    Set<DiscoverySelector> contexts = new LinkedHashSet<>();
+                    for (ContextModel contextModel : model.getContexts()) {
+                        contexts.add(selectNestedClass(singletonList(specType), contextModel.getContextType()));
+                    }
+                    return contexts;
+                }))).orElse(unresolved());
+    }
+
+    private Resolution resolveContext(Class<? extends Specification<?>> specType, Class<?> contextType,
+            Context context) {
+        ContextModel model = SpecModel.of(specType).getContext(contextType);
+        if (model == null) {
+            return unresolved();
+        }
+        return context.addToParent(() -> selectClass(specType),
+                parent -> Optional.of(new ContextDescriptor(parent.getUniqueId(), specType, model)))
+                .map(descriptor -> Resolution.match(Match.exact(descriptor, () -> {
+                    Set<DiscoverySelector> behaviors = new LinkedHashSet<>();
+                    for (Method method : model.getBehaviors()) {
+                        behaviors.add(selectNestedMethod(singletonList(specType), contextType, method.getName()));
+                    }
+                    return behaviors;
+                }))).orElse(unresolved());
+    }
+
+    private Resolution resolveBehavior(Class<? extends Specification<?>> specType, Class<?> contextType,
+            String methodName, Context context) {
+        ContextModel model = SpecModel.of(specType).getContext(contextType);
+        Method method = model != null ? behaviorNamed(model, methodName) : null;
+        if (method == null) {
+            return unresolved();
+        }
+        return context.addToParent(() -> selectNestedClass(singletonList(specType), contextType),
+                parent -> Optional.of(new BehaviorDescriptor(parent.getUniqueId(), specType, contextType, method)))
+                .map(descriptor -> Resolution.match(Match.exact(descriptor))).orElse(unresolved());
+    }
+
+    private static Method behaviorNamed(ContextModel model, String name) {
+        for (Method method : model.getBehaviors()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static ContextModel contextNamed(Class<? extends Specification<?>> specType, String name) {
+        for (ContextModel model : SpecModel.of(specType).getContexts()) {
+            if (model.getName().equals(name)) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    private static Set<DiscoverySelector> singleton(DiscoverySelector selector) {
+        Set<DiscoverySelector> selectors = new LinkedHashSet<>();
+        selectors.add(selector);
+        return selectors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Specification<?>> specType(Class<?> type) {
+        return (Class<? extends Specification<?>>) type;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit.platform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jdave.Specification;
+import jdave.runner.Parallel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.opentest4j.AssertionFailedError;
+
+public class JDaveTestEngineTest {
+    private final JDaveTestEngine engine = new JDaveTestEngine();
+
+    @Test
+    public void discoversContextsAndBehaviorsOfSelectedSpec() {
+        TestDescriptor root = discover(selectClass(StackSpec.class));
+        assertEquals(1, root.getChildren().size());
+        TestDescriptor spec = root.getChildren().iterator().next();
+        assertEquals("StackSpec", spec.getDisplayName());
+        assertEquals(2, spec.getChildren().size());
+        assertEquals(3, root.getDescendants().stream().filter(TestDescriptor::isTest).count());
+    }
+
+    @Test
+    public void discoversSpecsInPackages() {
+        TestDescriptor root = discover(selectPackage(getClass().getPackage().getName()));
+        List<String> specs = new ArrayList<String>();
+        for (TestDescriptor spec : root.getChildren()) {
+            specs.add(spec.getDisplayName());
+        }
+        Collections.sort(specs);
+        assertEquals(Arrays.asList("ParallelSpec", "StackSpec"), specs);
+    }
+
+    @Test
+    public void leavesSpecsRunWithJUnit4RunnerToTheVintageEngine() {
+        assertTrue(discover(selectClass(VintageSpec.class)).getChildren().isEmpty());
+    }
+
+    @Test
+    public void discoversSingleBehaviorByMethodAndUniqueId() {
+        TestDescriptor root = discover(selectMethod(StackSpec.EmptyStack.class, "isEmpty"));
+        assertEquals(1, root.getDescendants().stream().filter(TestDescriptor::isTest).count());
+
+        UniqueId id = UniqueId.forEngine(JDaveTestEngine.ID).append("spec", StackSpec.class.getName())
+                .append("context", "FullStack").append("behavior", "failsToPushMore");
+        root = discover(selectUniqueId(id));
+        TestDescriptor behavior = root.getDescendants().stream().filter(TestDescriptor::isTest).findFirst().get();
+        assertEquals(id, behavior.getUniqueId());
+    }
+
+    @Test
+    public void reportsResultsOfBehaviors() {
+        TestExecutionSummary summary = execute(false, selectClass(StackSpec.class));
+        assertEquals(3, summary.getTestsFoundCount());
+        assertEquals(2, summary.getTestsSucceededCount());
+        assertEquals(1, summary.getTestsFailedCount());
+        assertTrue(summary.getFailures().get(0).getException() instanceof AssertionFailedError);
+    }
+
+    @Test
+    public void runsSpecsInParallelIfEnabled() {
+        TestExecutionSummary summary = execute(true, selectClass(StackSpec.class), selectClass(ParallelSpec.class));
+        assertEquals(5, summary.getTestsFoundCount());
+        assertEquals(4, summary.getTestsSucceededCount());
+    }
+
+    private TestDescriptor discover(DiscoverySelector selector) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request().selectors(selector).build();
+        return engine.discover(request, UniqueId.forEngine(JDaveTestEngine.ID));
+    }
+
+    private TestExecutionSummary execute(boolean parallel, DiscoverySelector... selectors) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request().selectors(selectors)
+                .configurationParameter(JDaveTestEngine.PARALLEL, String.valueOf(parallel)).build();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(request, listener);
+        return listener.getSummary();
+    }
+
+    public static class StackSpec extends Specification<List<String>> {
+        public class EmptyStack {
+            public List<String> create() {
+                return new ArrayList<String>();
+            }
+
+            public void isEmpty() {
+                specify(context.isEmpty());
+            }
+        }
+
+        public class FullStack {
+            public List<String> create() {
+                return new ArrayList<String>(Collections.singletonList("item"));
+            }
+
+            public void containsItem() {
+                specify(context.size(), should.equal(1));
+            }
+
+            public void failsToPushMore() {
+                specify(context.get(0), should.equal("other"));
+            }
+        }
+    }
+
+    @Parallel
+    public static class ParallelSpec extends Specification<Object> {
+        public class AnyContext {
+            public void first() {
+            }
+
+            public void second() {
+            }
+        }
+    }
+
+    @RunWith(JUnit4.class)
+    public static class VintageSpec extends Specification<Void> {
+        public class Context {
+            public void behavior() {
+            }
+        }
+    }
+}
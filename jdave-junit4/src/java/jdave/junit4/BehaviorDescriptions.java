@@ -0,0 +1,47 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jdave.runner.Behavior;
+
+import org.junit.runner.Description;
+
+/**
+ * The descriptions of behaviors, created once while describing a spec and
+ * reused whenever its behaviors are filtered or run. Filled before the spec
+ * is run and only read afterwards.
+ */
+class BehaviorDescriptions {
+    private final Map<Class<?>, Map<String, Description>> descriptions = new HashMap<Class<?>, Map<String, Description>>();
+
+    void put(Class<?> contextType, String behavior, Description description) {
+        Map<String, Description> behaviors = descriptions.get(contextType);
+        if (behaviors == null) {
+            behaviors = new HashMap<String, Description>();
+            descriptions.put(contextType, behaviors);
+        }
+        behaviors.put(behavior, description);
+    }
+
+    Description get(Behavior behavior) {
+        Map<String, Description> behaviors = descriptions.get(behavior.getContextType());
+        Description description = behaviors != null ? behaviors.get(behavior.getName()) : null;
+        return description != null ? description : DescriptionFactory.newDescription(behavior);
+    }
+}
@@ -17,6 +17,7 @@ package jdave.junit4;
 
 import jdave.Specification;
 import jdave.runner.Context;
+import jdave.runner.SpecModel;
 import jdave.runner.SpecRunner;
 import jdave.runner.ISpecVisitor;
 import jdave.runner.Behavior;
@@ -39,15 +40,29 @@ import org.junit.runner.Description;
  */
 public class DescriptionFactory implements ISpecVisitor {
     private final Description description;
+    private final BehaviorDescriptions behaviorDescriptions;
     private Description contextDescription;
 
     public DescriptionFactory(Description description) {
+        this(description, new BehaviorDescriptions());
+    }
+
+    DescriptionFactory(Description description, BehaviorDescriptions behaviorDescriptions) {
         this.description = description;
+        this.behaviorDescriptions = behaviorDescriptions;
     }
 
     public static Description create(Class<? extends Specification<?>> spec) {
-        Description description = Description.createSuiteDescription(spec.getName());
-        DescriptionFactory factory = new DescriptionFactory(description);
+        return create(SpecModel.of(spec));
+    }
+
+    public static Description create(SpecModel spec) {
+        return create(spec, new BehaviorDescriptions());
+    }
+
+    static Description create(SpecModel spec, BehaviorDescriptions behaviorDescriptions) {
+        Description description = Description.createSuiteDescription(spec.getSpecType().getName());
+        DescriptionFactory factory = new DescriptionFactory(description, behaviorDescriptions);
         new SpecRunner().visit(spec, factory);
         return description;
     }
@@ -58,7 +73,9 @@ public class DescriptionFactory implements ISpecVisitor {
     }
     
     public void onBehavior(Behavior behavior) {
-        contextDescription.addChild(newDescription(behavior));
+        Description behaviorDescription = newDescription(behavior);
+        behaviorDescriptions.put(behavior.getContextType(), behavior.getName(), behaviorDescription);
+        contextDescription.addChild(behaviorDescription);
     }
 
     static Description newDescription(Behavior behavior) {
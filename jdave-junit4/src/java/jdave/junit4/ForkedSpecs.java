@@ -0,0 +1,231 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * Runs specs in forked worker JVMs, see {@link ForkedWorker}. Each fork takes
+ * the next spec from a shared queue and forwards the events of its worker to
+ * the notifier. A worker is replaced after a given number of specs, and when
+ * it exits while running a spec, in which case the spec fails. If a worker
+ * can not be started, the spec it was started for fails and the next spec
+ * tries a new worker.
+ */
+class ForkedSpecs {
+    private static final int CONNECT_TIMEOUT = 60000;
+    private final Queue<JDaveRunner> specs;
+    private final int recycle;
+    private final List<String> jvmArgs;
+
+    /**
+     * @param recycle the number of specs after which a worker is replaced, or
+     * zero to never replace it
+     */
+    ForkedSpecs(List<JDaveRunner> specs, int recycle, List<String> jvmArgs) {
+        this.specs = new ConcurrentLinkedQueue<JDaveRunner>(specs);
+        this.recycle = recycle;
+        this.jvmArgs = jvmArgs;
+    }
+
+    Runnable newFork(final RunNotifier notifier) {
+        return new Runnable() {
+            public void run() {
+                Worker worker = null;
+                int runs = 0;
+                try {
+                    for (JDaveRunner spec = specs.poll(); spec != null; spec = specs.poll()) {
+                        if (worker == null) {
+                            try {
+                                worker = new Worker();
+                            } catch (IOException e) {
+                                notifier.fireTestFailure(new Failure(spec.getDescription(), new RuntimeException(
+                                        "Can not start forked worker", e)));
+                                continue;
+                            }
+                            runs = 0;
+                        }
+                        if (!worker.run(spec, notifier)) {
+                            worker.destroy();
+                            worker = null;
+                        } else if (recycle > 0 && ++runs == recycle) {
+                            worker.stop();
+                            worker = null;
+                        }
+                    }
+                } finally {
+                    if (worker != null) {
+                        worker.stop();
+                    }
+                }
+            }
+        };
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArgs);
+        for (Map.Entry<Object, Object> property : new HashMap<Object, Object>(System.getProperties()).entrySet()) {
+            if (property.getKey().toString().startsWith("jdave.")) {
+                command.add("-D" + property.getKey() + "=" + property.getValue());
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ForkedWorker.class.getName());
+        command.add(String.valueOf(port));
+        return command;
+    }
+
+    private class Worker {
+        private final Process process;
+        private final Socket socket;
+        private final ObjectOutputStream out;
+        private final ObjectInputStream in;
+
+        Worker() throws IOException {
+            ServerSocket server = new ServerSocket(0, 1, InetAddress.getByName(null));
+            try {
+                server.setSoTimeout(CONNECT_TIMEOUT);
+                process = new ProcessBuilder(command(server.getLocalPort())).redirectErrorStream(true).start();
+                pump(process.getInputStream(), System.out);
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    process.destroy();
+                    throw e;
+                }
+            } finally {
+                server.close();
+            }
+            out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.flush();
+            in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        /**
+         * @return <code>false</code> if the worker exited while running the spec
+         */
+        boolean run(JDaveRunner spec, RunNotifier notifier) {
+            Description specDescription = spec.getDescription();
+            RemappingRunNotifier descriptions = new RemappingRunNotifier(notifier, specDescription);
+            Description running = null;
+            try {
+                out.writeUTF(spec.getSpec().getName());
+                out.flush();
+                while (true) {
+                    byte event = in.readByte();
+                    Description description = descriptions.descriptionOf(in.readUTF());
+                    switch (event) {
+                    case ForkedWorker.STARTED:
+                        running = description;
+                        notifier.fireTestStarted(description);
+                        break;
+                    case ForkedWorker.FINISHED:
+                        running = null;
+                        notifier.fireTestFinished(description);
+                        break;
+                    case ForkedWorker.FAILURE:
+                        notifier.fireTestFailure(new Failure(description, (Throwable) in.readObject()));
+                        break;
+                    case ForkedWorker.ASSUMPTION_FAILURE:
+                        notifier.fireTestAssumptionFailed(new Failure(description, (Throwable) in.readObject()));
+                        break;
+                    case ForkedWorker.IGNORED:
+                        notifier.fireTestIgnored(description);
+                        break;
+                    case ForkedWorker.DONE:
+                        return true;
+                    }
+                }
+            } catch (Exception e) {
+                Description failed = running != null ? running : specDescription;
+                notifier.fireTestFailure(new Failure(failed, new RuntimeException("Forked worker exited while running "
+                        + specDescription.getDisplayName(), e)));
+                if (running != null) {
+                    notifier.fireTestFinished(running);
+                }
+                return false;
+            }
+        }
+
+        void stop() {
+            try {
+                out.writeUTF("");
+                out.flush();
+                process.waitFor();
+            } catch (IOException e) {
+                process.destroy();
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void destroy() {
+            process.destroy();
+            close();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // the worker is gone either way
+            }
+        }
+    }
+
+    private static void pump(final InputStream in, final PrintStream out) {
+        Thread thread = new Thread("jdave-fork-output") {
+            @Override
+            public void run() {
+                byte[] buffer = new byte[4096];
+                try {
+                    for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                        out.write(buffer, 0, read);
+                    }
+                } catch (IOException e) {
+                    // the worker exited
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * A worker JVM forked by {@link JDaveGroupRunner}. Connects back to the
+ * runner on the given local port, runs the specs whose class names it
+ * receives one at a time, and sends their events back, each behavior
+ * identified by the display name of its description.
+ */
+public class ForkedWorker {
+    static final byte STARTED = 1;
+    static final byte FINISHED = 2;
+    static final byte FAILURE = 3;
+    static final byte ASSUMPTION_FAILURE = 4;
+    static final byte IGNORED = 5;
+    static final byte DONE = 6;
+    private final ObjectOutputStream out;
+
+    private ForkedWorker(ObjectOutputStream out) {
+        this.out = out;
+    }
+
+    public static void main(String... args) throws Exception {
+        Socket socket = new Socket(InetAddress.getByName(null), Integer.parseInt(args[0]));
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            new ForkedWorker(out).run(in);
+        } finally {
+            socket.close();
+        }
+        System.exit(0);
+    }
+
+    private void run(ObjectInputStream in) throws IOException {
+        try {
+            for (String spec = in.readUTF(); spec.length() > 0; spec = in.readUTF()) {
+                runSpec(spec);
+            }
+        } catch (EOFException e) {
+            // the runner exited
+        }
+    }
+
+    private void runSpec(String spec) throws IOException {
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) throws IOException {
+                send(STARTED, description, null);
+            }
+
+            @Override
+            public void testFinished(Description description) throws IOException {
+                send(FINISHED, description, null);
+            }
+
+            @Override
+            public void testFailure(Failure failure) throws IOException {
+                send(FAILURE, failure.getDescription(), failure.getException());
+            }
+
+            @Override
+            public void testAssumptionFailure(Failure failure) {
+                try {
+                    send(ASSUMPTION_FAILURE, failure.getDescription(), failure.getException());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public void testIgnored(Description description) throws IOException {
+                send(IGNORED, description, null);
+            }
+        });
+        try {
+            new JDaveRunner(Class.forName(spec)).run(notifier);
+        } catch (Throwable t) {
+            send(FAILURE, null, t);
+        }
+        send(DONE, null, null);
+        out.flush();
+    }
+
+    private synchronized void send(byte event, Description description, Throwable t) throws IOException {
+        out.writeByte(event);
+        out.writeUTF(description != null ? description.getDisplayName() : "");
+        if (event == FAILURE || event == ASSUMPTION_FAILURE) {
+            out.writeObject(serializable(t));
+        }
+        out.reset();
+    }
+
+    /**
+     * @return the given throwable, or a copy with its description and stack
+     * trace if it, or any of its causes, can not be serialized
+     */
+    private static Throwable serializable(Throwable t) {
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(t);
+            return t;
+        } catch (NotSerializableException e) {
+            RuntimeException copy = new RuntimeException(t.toString());
+            copy.setStackTrace(t.getStackTrace());
+            return copy;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
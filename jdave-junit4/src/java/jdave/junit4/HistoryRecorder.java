@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdave.runner.History;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Records the duration and outcome of each behavior of given specs into a
+ * {@link History}.
+ */
+class HistoryRecorder extends RunListener {
+    private final History history;
+    private final Map<Description, String> specs = new ConcurrentHashMap<Description, String>();
+    private final Map<Description, Long> started = new ConcurrentHashMap<Description, Long>();
+    private final Map<Description, Boolean> failed = new ConcurrentHashMap<Description, Boolean>();
+
+    HistoryRecorder(History history, List<JDaveRunner> runners) {
+        this.history = history;
+        for (JDaveRunner runner : runners) {
+            index(runner.getSpec().getName(), runner.getDescription());
+        }
+    }
+
+    private void index(String spec, Description description) {
+        specs.put(description, spec);
+        for (Description child : description.getChildren()) {
+            index(spec, child);
+        }
+    }
+
+    @Override
+    public void testStarted(Description description) {
+        started.put(description, System.nanoTime());
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+        failed.put(failure.getDescription(), Boolean.TRUE);
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        Long start = started.remove(description);
+        String spec = specs.get(description);
+        if (start != null && spec != null && description.getMethodName() != null) {
+            long duration = (System.nanoTime() - start) / 1000000;
+            history.record(spec, description.getClassName(), description.getMethodName(), duration,
+                    failed.remove(description) != null);
+        }
+    }
+}
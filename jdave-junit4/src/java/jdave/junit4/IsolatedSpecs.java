@@ -0,0 +1,68 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import jdave.runner.IsolatingClassLoader;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * Runs specs in workers of one JVM, each with its own
+ * {@link IsolatingClassLoader} and thus its own copies of JDave and spec
+ * statics. Each worker takes the next spec from a shared queue.
+ */
+class IsolatedSpecs {
+    private final Queue<JDaveRunner> specs;
+
+    IsolatedSpecs(List<JDaveRunner> specs) {
+        this.specs = new ConcurrentLinkedQueue<JDaveRunner>(specs);
+    }
+
+    Runnable newWorker(final RunNotifier notifier) {
+        return new Runnable() {
+            public void run() {
+                ClassLoader loader = new IsolatingClassLoader(JDaveRunner.class.getClassLoader());
+                Thread thread = Thread.currentThread();
+                ClassLoader contextLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(loader);
+                try {
+                    for (JDaveRunner spec = specs.poll(); spec != null; spec = specs.poll()) {
+                        runIsolated(spec, loader, notifier);
+                    }
+                } finally {
+                    thread.setContextClassLoader(contextLoader);
+                }
+            }
+        };
+    }
+
+    private void runIsolated(JDaveRunner spec, ClassLoader loader, RunNotifier notifier) {
+        Runner runner;
+        try {
+            Class<?> isolatedSpec = loader.loadClass(spec.getSpec().getName());
+            runner = (Runner) loader.loadClass(JDaveRunner.class.getName()).getConstructor(Class.class)
+                    .newInstance(isolatedSpec);
+        } catch (Exception e) {
+            notifier.fireTestFailure(new Failure(spec.getDescription(), e));
+            return;
+        }
+        runner.run(new RemappingRunNotifier(notifier, spec.getDescription()));
+    }
+}
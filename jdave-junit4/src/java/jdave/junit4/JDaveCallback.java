@@ -17,6 +17,8 @@ package jdave.junit4;
 
 import jdave.runner.Behavior;
 import jdave.runner.Context;
+import jdave.runner.IBehaviorFilter;
+import jdave.runner.IPhaseListener;
 import jdave.runner.ISpecVisitor;
 import org.junit.runner.Description;
 import org.junit.runner.manipulation.Filter;
@@ -31,9 +33,11 @@ import org.junit.runner.notification.RunNotifier;
  * @author Lasse Koskela
  * @author Joni Freeman
  */
-public class JDaveCallback implements ISpecVisitor {
+public class JDaveCallback implements ISpecVisitor, IBehaviorFilter {
     private final RunNotifier notifier;
     private Filter filter;
+    private IPhaseListener phaseListener;
+    private BehaviorDescriptions descriptions = new BehaviorDescriptions();
 
     public JDaveCallback(final RunNotifier notifier) {
         this.notifier = notifier;
@@ -44,6 +48,17 @@ public class JDaveCallback implements ISpecVisitor {
         this.filter = filter;
     }
 
+    public JDaveCallback(final RunNotifier notifier, final Filter filter, final IPhaseListener phaseListener) {
+        this(notifier, filter);
+        this.phaseListener = phaseListener;
+    }
+
+    JDaveCallback(final RunNotifier notifier, final Filter filter, final IPhaseListener phaseListener,
+            final BehaviorDescriptions descriptions) {
+        this(notifier, filter, phaseListener);
+        this.descriptions = descriptions;
+    }
+
     public void onContext(final Context context) {
     }
 
@@ -51,13 +66,13 @@ public class JDaveCallback implements ISpecVisitor {
     }
 
     public void onBehavior(final Behavior behavior) {
-        final Description desc = DescriptionFactory.newDescription(behavior);
+        final Description desc = descriptions.get(behavior);
         final boolean shouldRun = shouldRun(desc);
         if (shouldRun) {
             notifier.fireTestStarted(desc);
 
             try {
-                final ResultsAdapter resultsAdapter = new ResultsAdapter(notifier, desc);
+                final ResultsAdapter resultsAdapter = ResultsAdapter.create(notifier, desc, phaseListener);
                 behavior.run(resultsAdapter);
             } finally {
                 notifier.fireTestFinished(desc);
@@ -65,6 +80,10 @@ public class JDaveCallback implements ISpecVisitor {
         }
     }
 
+    public boolean shouldRun(final Behavior behavior) {
+        return shouldRun(descriptions.get(behavior));
+    }
+
     private boolean shouldRun(final Description desc) {
         if (filter != null) {
             final boolean shouldRun = filter.shouldRun(desc);
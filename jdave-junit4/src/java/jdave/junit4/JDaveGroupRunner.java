@@ -18,24 +18,76 @@ package jdave.junit4;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import jdave.Specification;
 import jdave.runner.AnnotatedSpecScanner;
+import jdave.runner.ClassFileInfo;
+import jdave.runner.DiscoveryCache;
 import jdave.runner.Groups;
+import jdave.runner.History;
 import jdave.runner.IAnnotatedSpecHandler;
 import jdave.runner.Resolution;
+import jdave.runner.Shard;
 import org.junit.runner.Description;
 import org.junit.runner.RunWith;
 import org.junit.runner.Runner;
 import org.junit.runner.notification.RunNotifier;
 
 /**
+ * Runs the specs of the groups given by the {@link Groups} annotation of a
+ * suite. If <code>jdave.shard.count</code> is set, only the specs of the
+ * shard given by <code>jdave.shard.index</code> are run, see {@link Shard}.
+ * If <code>jdave.runner.history</code> is set, specs are run longest first
+ * and their outcomes are recorded, see {@link History}. If
+ * <code>jdave.runner.discovery.cache</code> is set, unchanged class files are
+ * not parsed again while the spec directories are scanned, see
+ * {@link DiscoveryCache}.
+ *
  * @author Joni Freeman
  */
 public class JDaveGroupRunner extends Runner {
+    /**
+     * The number of specs run concurrently, by default one. Events of
+     * concurrently run specs are forwarded to the notifier one at a time.
+     */
+    public static final String PARALLELISM = "jdave.junit4.group.parallelism";
+    /**
+     * The number of workers to run specs in within this JVM, by default none.
+     * Each worker loads JDave and the classes of class directories, such as
+     * specs, in its own class loader, so that workers do not share their
+     * static state. The JDK and libraries in jars are shared.
+     */
+    public static final String ISOLATED = "jdave.junit4.group.isolated";
+    /**
+     * The number of worker JVMs to run specs in, by default none. Use forks
+     * instead of threads for specs which change JVM global state, such as
+     * system properties or static fields.
+     */
+    public static final String FORKS = "jdave.junit4.group.forks";
+    /**
+     * The number of specs after which a worker JVM is replaced by a new one,
+     * by default zero, which never replaces a worker.
+     */
+    public static final String FORK_RECYCLE = "jdave.junit4.group.forks.recycle";
+    /**
+     * Whitespace separated arguments of the worker JVMs, such as
+     * <code>-Xmx512m</code>. Workers inherit the class path and the
+     * <code>jdave.*</code> system properties of this JVM.
+     */
+    public static final String FORK_JVM_ARGS = "jdave.junit4.group.forks.jvmargs";
     private final Class<?> suite;
-    private final List<Class<? extends Specification<?>>> specs = new ArrayList<Class<? extends Specification<?>>>();
+    private final List<JDaveRunner> runners = new ArrayList<JDaveRunner>();
     private final Description description;
+    private History history;
 
     public JDaveGroupRunner(Class<?> suite) {
         this.suite = suite;        
@@ -45,18 +97,69 @@ public class JDaveGroupRunner extends Runner {
 
     private void collectSpecsAndDescriptionBy(Class<?> suite) {
         final Resolution resolution = new Resolution(suite.getAnnotation(Groups.class));
+        DiscoveryCache discoveryCache = DiscoveryCache.fromSystemProperty();
         for (String dir : findRootDirs()) {
-            scanDir(dir, resolution);
+            scanDir(dir, resolution, discoveryCache);
+        }
+        if (discoveryCache != null) {
+            discoveryCache.save();
+        }
+        Shard shard = Shard.fromSystemProperties();
+        if (shard != null) {
+            selectSpecsOf(shard);
+        }
+        history = History.fromSystemProperty();
+        if (history != null) {
+            orderSpecsBy(history);
+        }
+        for (JDaveRunner runner : runners) {
+            description.addChild(runner.getDescription());
+        }
+    }
+
+    private void selectSpecsOf(Shard shard) {
+        Map<String, JDaveRunner> specs = specsByName();
+        List<String> selected = shard.select(behaviorCounts());
+        runners.clear();
+        for (String spec : selected) {
+            runners.add(specs.get(spec));
+        }
+    }
+
+    private void orderSpecsBy(History history) {
+        Map<String, JDaveRunner> specs = specsByName();
+        List<String> ordered = history.order(behaviorCounts(), Boolean.getBoolean(History.FAILED_FIRST));
+        runners.clear();
+        for (String spec : ordered) {
+            runners.add(specs.get(spec));
+        }
+    }
+
+    private Map<String, JDaveRunner> specsByName() {
+        Map<String, JDaveRunner> specs = new HashMap<String, JDaveRunner>();
+        for (JDaveRunner runner : runners) {
+            specs.put(runner.getSpec().getName(), runner);
+        }
+        return specs;
+    }
+
+    private Map<String, Integer> behaviorCounts() {
+        Map<String, Integer> behaviors = new HashMap<String, Integer>();
+        for (JDaveRunner runner : runners) {
+            behaviors.put(runner.getSpec().getName(), runner.getDescription().testCount());
         }
+        return behaviors;
     }
     
-    private void scanDir(String dir, final Resolution resolution) {
-        newAnnotatedSpecScanner(dir).forEach(new IAnnotatedSpecHandler() {
+    private void scanDir(String dir, final Resolution resolution, DiscoveryCache discoveryCache) {
+        AnnotatedSpecScanner scanner = newAnnotatedSpecScanner(dir);
+        scanner.setDiscoveryCache(discoveryCache);
+        scanner.forEach(new IAnnotatedSpecHandler() {
             public void handle(String classname, String... groups) {
                 if (resolution.includes(Arrays.asList(groups))) {
                     Class<? extends Specification<?>> spec = loadClass(classname);
-                    specs.add(spec);
-                    description.addChild(DescriptionFactory.create(spec));
+                    JDaveRunner runner = new JDaveRunner(spec);
+                    runners.add(runner);
                 }
             }
         });
@@ -75,6 +178,20 @@ public class JDaveGroupRunner extends Runner {
     
     protected AnnotatedSpecScanner newAnnotatedSpecScanner(String suiteLocation) {
         return new AnnotatedSpecScanner(suiteLocation) {
+            @Override
+            public boolean isInDefaultGroup(ClassFileInfo classFile) {
+                while (classFile != null) {
+                    if (classFile.isAnnotationPresent(RunWith.class.getName())) {
+                        return JDaveRunner.class.getName().equals(classFile.getAnnotationValue(RunWith.class.getName()));
+                    }
+                    if (classFile.getSuperclassName() == null || classFile.getSuperclassName().startsWith("java.")) {
+                        return false;
+                    }
+                    classFile = classFileOf(classFile.getSuperclassName());
+                }
+                return false;
+            }
+
             @Override
             public boolean isInDefaultGroup(String classname, Annotation... annotations) {
                 for (Annotation annotation : annotations) {
@@ -99,17 +216,118 @@ public class JDaveGroupRunner extends Runner {
 
     @Override
     public void run(RunNotifier notifier) {
+        HistoryRecorder recorder = null;
+        if (history != null) {
+            recorder = new HistoryRecorder(history, runners);
+            notifier.addListener(recorder);
+        }
         try {
             onBeforeRun();
             runSpecs(notifier);
         } finally {
-            onAfterRun();
+            try {
+                onAfterRun();
+            } finally {
+                if (recorder != null) {
+                    notifier.removeListener(recorder);
+                    history.save();
+                }
+            }
         }
     }
 
     private void runSpecs(RunNotifier notifier) {
-        for (Class<? extends Specification<?>> spec : specs) {
-            new JDaveRunner(spec).run(notifier);
+        int forks = Integer.getInteger(FORKS, 0);
+        int isolated = Integer.getInteger(ISOLATED, 0);
+        int parallelism = Integer.getInteger(PARALLELISM, 1);
+        if (forks > 0 && !runners.isEmpty()) {
+            ForkedSpecs forked = new ForkedSpecs(runners, Integer.getInteger(FORK_RECYCLE, 0), forkJvmArgs());
+            RunNotifier synchronizedNotifier = new SynchronizedRunNotifier(notifier);
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < Math.min(forks, runners.size()); i++) {
+                tasks.add(forked.newFork(synchronizedNotifier));
+            }
+            runConcurrently(tasks, tasks.size());
+        } else if (isolated > 0 && !runners.isEmpty()) {
+            IsolatedSpecs isolatedSpecs = new IsolatedSpecs(runners);
+            RunNotifier synchronizedNotifier = new SynchronizedRunNotifier(notifier);
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < Math.min(isolated, runners.size()); i++) {
+                tasks.add(isolatedSpecs.newWorker(synchronizedNotifier));
+            }
+            runConcurrently(tasks, tasks.size());
+        } else if (parallelism > 1 && runners.size() > 1) {
+            final RunNotifier synchronizedNotifier = new SynchronizedRunNotifier(notifier);
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (final JDaveRunner runner : runners) {
+                tasks.add(new Runnable() {
+                    public void run() {
+                        runner.run(synchronizedNotifier);
+                    }
+                });
+            }
+            runConcurrently(tasks, parallelism);
+        } else {
+            for (JDaveRunner runner : runners) {
+                runner.run(notifier);
+            }
+        }
+    }
+
+    private List<String> forkJvmArgs() {
+        String jvmArgs = System.getProperty(FORK_JVM_ARGS, "").trim();
+        return jvmArgs.length() > 0 ? Arrays.asList(jvmArgs.split("\\s+")) : Collections.<String>emptyList();
+    }
+
+    private void runConcurrently(List<Runnable> tasks, int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jdave-group-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            Throwable failure = null;
+            for (Future<?> future : futures) {
+                Throwable t = await(future);
+                if (failure == null) {
+                    failure = t;
+                }
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the task to finish, so that a failed task does not cut the
+     * other tasks short.
+     *
+     * @return the failure of the task, or <code>null</code> if it succeeded
+     */
+    private Throwable await(Future<?> future) {
+        try {
+            future.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            return e.getCause();
         }
     }
     
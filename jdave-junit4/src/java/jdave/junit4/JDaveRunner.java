@@ -17,11 +17,15 @@ package jdave.junit4;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.List;
 
 import jdave.IStringComparisonFailure;
 import jdave.Specification;
+import jdave.runner.PhaseTimings;
+import jdave.runner.SpecModel;
 import jdave.runner.SpecRunner;
+import jdave.support.ClassCache;
 import jdave.tools.SpecdoxRunner;
 import junit.framework.ComparisonFailure;
 import org.junit.Rule;
@@ -32,6 +36,7 @@ import org.junit.runner.Description;
 import org.junit.runner.Runner;
 import org.junit.runner.manipulation.Filter;
 import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
@@ -45,8 +50,21 @@ import org.junit.runners.model.TestClass;
  * @author Lasse Koskela
  */
 public class JDaveRunner extends Runner implements Filterable {
+    private static final IStringComparisonFailure COMPARISON_FAILURE = new IStringComparisonFailure() {
+        public void fail(final String message, final String expected, final String actual) {
+            throw new ComparisonFailure(message, expected, actual);
+        }
+    };
     private final Class<? extends Specification<?>> spec;
-    private final Description description;
+    private static final ClassCache<TestClass> testClasses = new ClassCache<TestClass>() {
+        @Override
+        protected TestClass compute(Class<?> type) {
+            return new TestClass(type);
+        }
+    };
+    private final SpecModel model;
+    private final BehaviorDescriptions behaviorDescriptions = new BehaviorDescriptions();
+    private Description description;
     private Filter filter;
 
     @SuppressWarnings("unchecked")
@@ -59,12 +77,9 @@ public class JDaveRunner extends Runner implements Filterable {
             throw new IllegalArgumentException("Testclass is not a Specification or a Context: "
                     + testClass);
         }
-        Specification.setStringComparisonFailure(new IStringComparisonFailure() {
-            public void fail(final String message, final String expected, final String actual) {
-                throw new ComparisonFailure(message, expected, actual);
-            }
-        });
-        description = DescriptionFactory.create(this.spec);
+        Specification.setStringComparisonFailure(COMPARISON_FAILURE);
+        model = SpecModel.of(this.spec);
+        description = DescriptionFactory.create(model, behaviorDescriptions);
     }
 
     private boolean isAContext(final Class<?> contextClass) {
@@ -87,8 +102,13 @@ public class JDaveRunner extends Runner implements Filterable {
         return description;
     }
 
+    Class<? extends Specification<?>> getSpec() {
+        return spec;
+    }
+
     @Override
     public void run(final RunNotifier notifier) {
+        PhaseTimings timings = SpecdoxRunner.timingsEnabled() ? new PhaseTimings() : null;
         (new SpecRunner() {
             public void invokeMethod(Method aMethod, Specification<?> spec, Object context)
                     throws Throwable {
@@ -98,12 +118,20 @@ public class JDaveRunner extends Runner implements Filterable {
                 statement = withTestRules(method, spec, statement);
                 statement.evaluate();
             }
-        }).run(spec, new JDaveCallback(notifier, filter));
-        new SpecdoxRunner().generate(spec);
+        }).run(model, new JDaveCallback(notifier, filter, timings, behaviorDescriptions));
+        new SpecdoxRunner().generate(model, timings);
     }
 
+    /**
+     * Rule metadata is looked up once per class, and classes without
+     * <code>@Rule</code> fields are not wrapped at all.
+     */
     protected List<TestRule> getTestRules(Object target) {
-        return new TestClass(target.getClass()).getAnnotatedFieldValues(target, Rule.class, TestRule.class);
+        TestClass testClass = testClasses.get(target.getClass());
+        if (testClass.getAnnotatedFields(Rule.class).isEmpty()) {
+            return Collections.emptyList();
+        }
+        return testClass.getAnnotatedFieldValues(target, Rule.class, TestRule.class);
     }
 
     private Statement withTestRules(FrameworkMethod method, Object target,
@@ -117,7 +145,28 @@ public class JDaveRunner extends Runner implements Filterable {
 		return Description.createTestDescription(testClass, method.getName(), method.getAnnotations());
 	}
 
-    public void filter(final Filter filter) {
+    /**
+     * Narrows the description to the behaviors the filter accepts. The filter
+     * is applied again while running, so that excluded contexts and
+     * behaviors are never instantiated.
+     */
+    public void filter(final Filter filter) throws NoTestsRemainException {
+        Description filtered = description.childlessCopy();
+        for (Description context : description.getChildren()) {
+            Description filteredContext = context.childlessCopy();
+            for (Description behavior : context.getChildren()) {
+                if (filter.shouldRun(behavior)) {
+                    filteredContext.addChild(behavior);
+                }
+            }
+            if (!filteredContext.getChildren().isEmpty()) {
+                filtered.addChild(filteredContext);
+            }
+        }
+        if (filtered.getChildren().isEmpty()) {
+            throw new NoTestsRemainException();
+        }
         this.filter = filter;
+        this.description = filtered;
     }
 }
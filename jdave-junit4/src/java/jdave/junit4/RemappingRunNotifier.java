@@ -0,0 +1,83 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+
+/**
+ * Forwards the events of a spec run elsewhere, such as in another JVM or
+ * class loader, to a notifier using the descriptions of the spec's own
+ * description tree, matched by display name.
+ */
+class RemappingRunNotifier extends RunNotifier {
+    private final RunNotifier notifier;
+    private final Description spec;
+    private final Map<String, Description> descriptions = new HashMap<String, Description>();
+
+    RemappingRunNotifier(RunNotifier notifier, Description spec) {
+        this.notifier = notifier;
+        this.spec = spec;
+        index(spec);
+    }
+
+    private void index(Description description) {
+        descriptions.put(description.getDisplayName(), description);
+        for (Description child : description.getChildren()) {
+            index(child);
+        }
+    }
+
+    /**
+     * @return the description with given display name, or the description of
+     * the spec if there is none
+     */
+    Description descriptionOf(String displayName) {
+        Description description = descriptions.get(displayName);
+        return description != null ? description : spec;
+    }
+
+    @Override
+    public void fireTestStarted(Description description) throws StoppedByUserException {
+        notifier.fireTestStarted(descriptionOf(description.getDisplayName()));
+    }
+
+    @Override
+    public void fireTestFinished(Description description) {
+        notifier.fireTestFinished(descriptionOf(description.getDisplayName()));
+    }
+
+    @Override
+    public void fireTestFailure(Failure failure) {
+        notifier.fireTestFailure(new Failure(descriptionOf(failure.getDescription().getDisplayName()),
+                failure.getException()));
+    }
+
+    @Override
+    public void fireTestAssumptionFailed(Failure failure) {
+        notifier.fireTestAssumptionFailed(new Failure(descriptionOf(failure.getDescription().getDisplayName()),
+                failure.getException()));
+    }
+
+    @Override
+    public void fireTestIgnored(Description description) {
+        notifier.fireTestIgnored(descriptionOf(description.getDisplayName()));
+    }
+}
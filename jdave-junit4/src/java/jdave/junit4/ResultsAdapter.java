@@ -19,6 +19,8 @@ import java.lang.reflect.Method;
 
 import jdave.ExpectationFailedException;
 import jdave.runner.IBehaviorResults;
+import jdave.runner.IPhaseListener;
+import jdave.runner.Phase;
 
 import org.junit.runner.Description;
 import org.junit.runner.notification.Failure;
@@ -26,7 +28,8 @@ import org.junit.runner.notification.RunNotifier;
 
 /**
  * The ResultsAdapter receives failure notifications from JDave and forwards
- * them to JUnit's RunNotifier.
+ * them to JUnit's RunNotifier. Phase timings are measured and forwarded only
+ * when the adapter is created with a phase listener.
  * 
  * @author Lasse Koskela
  */
@@ -39,6 +42,13 @@ public class ResultsAdapter implements IBehaviorResults {
         this.desc = desc;
     }
 
+    static ResultsAdapter create(RunNotifier notifier, Description desc, IPhaseListener phaseListener) {
+        if (phaseListener == null) {
+            return new ResultsAdapter(notifier, desc);
+        }
+        return new Timed(notifier, desc, phaseListener);
+    }
+
     public void error(Method m, Throwable e) {
         notifier.fireTestFailure(new Failure(desc, e));
     }
@@ -50,4 +60,17 @@ public class ResultsAdapter implements IBehaviorResults {
     public void unexpected(Method m, ExpectationFailedException e) {
         notifier.fireTestFailure(new Failure(desc, e));
     }
-}
\ No newline at end of file
+
+    static class Timed extends ResultsAdapter implements IPhaseListener {
+        private final IPhaseListener phaseListener;
+
+        Timed(RunNotifier notifier, Description desc, IPhaseListener phaseListener) {
+            super(notifier, desc);
+            this.phaseListener = phaseListener;
+        }
+
+        public void phase(Class<?> contextType, Method m, Phase phase, long nanos) {
+            phaseListener.phase(contextType, m, phase, nanos);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdave.runner.History;
+import jdave.runner.Shard;
+import org.junit.runner.JUnitCore;
+
+/**
+ * Runs one shard of the given suites from the command line:
+ * <pre>
+ * java jdave.junit4.ShardLauncher --shard 2/12 [--durations file] suite...
+ * </pre>
+ * The shard index is zero based. Each suite is a class run by
+ * {@link JDaveGroupRunner}, which keeps only the specs of the shard. Exits
+ * with a non-zero status if any behavior fails.
+ * <p>
+ * The durations file is produced from the histories of previous shard runs
+ * (see {@link History}):
+ * <pre>
+ * java jdave.junit4.ShardLauncher --merge-durations file history...
+ * </pre>
+ */
+public class ShardLauncher {
+    public static void main(String... args) {
+        if (args.length > 0 && args[0].equals("--merge-durations")) {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("expected --merge-durations file history...");
+            }
+            mergeDurations(new File(args[1]), files(args, 2));
+            return;
+        }
+        JUnitCore.main(parse(args));
+    }
+
+    /**
+     * Writes the spec durations of the given histories to a durations file.
+     * A spec found in several histories keeps its duration from the last one.
+     */
+    static void mergeDurations(File durations, List<File> histories) {
+        Map<String, Long> merged = new HashMap<String, Long>();
+        for (File history : histories) {
+            merged.putAll(new History(history).getSpecDurations());
+        }
+        Shard.writeDurations(durations, merged);
+    }
+
+    private static List<File> files(String[] args, int from) {
+        List<File> files = new ArrayList<File>();
+        for (int i = from; i < args.length; i++) {
+            files.add(new File(args[i]));
+        }
+        return files;
+    }
+
+    static String[] parse(String... args) {
+        List<String> suites = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--shard") && i + 1 < args.length) {
+                String[] shard = args[++i].split("/");
+                if (shard.length != 2) {
+                    throw new IllegalArgumentException("expected --shard index/count, was " + args[i]);
+                }
+                // fails early on an invalid shard
+                new Shard(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+                System.setProperty(Shard.INDEX, shard[0]);
+                System.setProperty(Shard.COUNT, shard[1]);
+            } else if (args[i].equals("--durations") && i + 1 < args.length) {
+                System.setProperty(Shard.DURATIONS, args[++i]);
+            } else {
+                suites.add(args[i]);
+            }
+        }
+        return suites.toArray(new String[suites.size()]);
+    }
+}
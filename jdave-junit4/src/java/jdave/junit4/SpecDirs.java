@@ -20,6 +20,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Directories or jar files to scan for specs instead of the location of the
+ * suite. A jar may be narrowed to a package with
+ * <code>path/to/specs.jar!/com/example</code>.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface SpecDirs {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+
+/**
+ * Forwards events to a notifier one at a time, so that specs run on several
+ * threads can share it.
+ */
+class SynchronizedRunNotifier extends RunNotifier {
+    private final RunNotifier notifier;
+
+    SynchronizedRunNotifier(RunNotifier notifier) {
+        this.notifier = notifier;
+    }
+
+    @Override
+    public synchronized void addListener(RunListener listener) {
+        notifier.addListener(listener);
+    }
+
+    @Override
+    public synchronized void addFirstListener(RunListener listener) {
+        notifier.addFirstListener(listener);
+    }
+
+    @Override
+    public synchronized void removeListener(RunListener listener) {
+        notifier.removeListener(listener);
+    }
+
+    @Override
+    public synchronized void fireTestRunStarted(Description description) {
+        notifier.fireTestRunStarted(description);
+    }
+
+    @Override
+    public synchronized void fireTestRunFinished(Result result) {
+        notifier.fireTestRunFinished(result);
+    }
+
+    @Override
+    public synchronized void fireTestStarted(Description description) throws StoppedByUserException {
+        notifier.fireTestStarted(description);
+    }
+
+    @Override
+    public synchronized void fireTestFailure(Failure failure) {
+        notifier.fireTestFailure(failure);
+    }
+
+    @Override
+    public synchronized void fireTestAssumptionFailed(Failure failure) {
+        notifier.fireTestAssumptionFailed(failure);
+    }
+
+    @Override
+    public synchronized void fireTestIgnored(Description description) {
+        notifier.fireTestIgnored(description);
+    }
+
+    @Override
+    public synchronized void fireTestFinished(Description description) {
+        notifier.fireTestFinished(description);
+    }
+
+    @Override
+    public synchronized void pleaseStop() {
+        notifier.pleaseStop();
+    }
+}
@@ -15,15 +15,22 @@
  */
 package jdave.junit4;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import jdave.Group;
 import jdave.Specification;
 import jdave.runner.AnnotatedSpecScanner;
+import jdave.runner.ClassFileInfo;
 import jdave.runner.Groups;
+import jdave.runner.History;
 import jdave.runner.IAnnotatedSpecHandler;
+import jdave.runner.Shard;
 import junit.framework.Assert;
 import static java.util.Arrays.asList;
 import static junit.framework.Assert.assertEquals;
@@ -37,6 +44,8 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.Description;
 import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
 import org.junit.runner.notification.RunNotifier;
 
 @RunWith(JMock.class)
@@ -105,6 +114,196 @@ public class JDaveGroupRunnerTest {
         runner.run(notifier);
     }
     
+    @Test
+    public void runsSpecsConcurrentlyIfParallelismIsSet() {
+        runner = new JDaveGroupRunner(Suite.class);
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                events.add("started " + description.getDisplayName());
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                events.add("finished " + description.getDisplayName());
+            }
+        });
+        System.setProperty(JDaveGroupRunner.PARALLELISM, "2");
+        try {
+            runner.run(notifier);
+        } finally {
+            System.clearProperty(JDaveGroupRunner.PARALLELISM);
+        }
+        assertEquals(4, events.size());
+        assertEquals(true, events.containsAll(asList(
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)")));
+    }
+
+    @Test
+    public void runsRemainingSpecsConcurrentlyBeforeRethrowingFailure() {
+        runner = new JDaveGroupRunner(Suite.class);
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        RunNotifier notifier = new RunNotifier() {
+            @Override
+            public void fireTestStarted(Description description) {
+                if (description.getDisplayName().contains("Spec1")) {
+                    throw new IllegalStateException();
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public void fireTestFinished(Description description) {
+                events.add("finished " + description.getDisplayName());
+            }
+        };
+        System.setProperty(JDaveGroupRunner.PARALLELISM, "2");
+        try {
+            runner.run(notifier);
+            Assert.fail("Should have thrown IllegalStateException.");
+        } catch (IllegalStateException e) {
+        } finally {
+            System.clearProperty(JDaveGroupRunner.PARALLELISM);
+        }
+        assertEquals(true, events.contains("finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)"));
+    }
+
+    @Test
+    public void runsSpecsInForkedWorkersIfForksIsSet() {
+        List<String> events = eventsOfRunWith(JDaveGroupRunner.FORKS, "2", JDaveGroupRunner.FORK_RECYCLE, "1");
+        assertEquals(events.toString(), 4, events.size());
+        assertEquals(true, events.containsAll(asList(
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)")));
+    }
+
+    @Test
+    public void failsEachSpecForWhichNoForkedWorkerCanBeStarted() {
+        String javaHome = System.getProperty("java.home");
+        System.setProperty("java.home", new File("target", "no-such-jdk").getAbsolutePath());
+        List<String> events;
+        try {
+            events = eventsOfRunWith(JDaveGroupRunner.FORKS, "1");
+        } finally {
+            System.setProperty("java.home", javaHome);
+        }
+        assertEquals(events.toString(), asList(
+                "failed jdave.junit4.JDaveGroupRunnerTest$Spec1",
+                "failed jdave.junit4.JDaveGroupRunnerTest$Spec2"), sorted(events));
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> sorted = new ArrayList<String>(list);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void runsSpecsInIsolatedClassLoadersIfIsolatedIsSet() {
+        List<String> events = eventsOfRunWith(JDaveGroupRunner.ISOLATED, "2");
+        assertEquals(events.toString(), 4, events.size());
+        assertEquals(true, events.containsAll(asList(
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec1$Context)",
+                "started behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)",
+                "finished behavior(jdave.junit4.JDaveGroupRunnerTest$Spec2$Context)")));
+    }
+
+    private List<String> eventsOfRunWith(String... properties) {
+        runner = new JDaveGroupRunner(Suite.class);
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                events.add("started " + description.getDisplayName());
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                events.add("finished " + description.getDisplayName());
+            }
+
+            @Override
+            public void testFailure(Failure failure) {
+                events.add("failed " + failure.getDescription().getDisplayName());
+            }
+        });
+        for (int i = 0; i < properties.length; i += 2) {
+            System.setProperty(properties[i], properties[i + 1]);
+        }
+        try {
+            runner.run(notifier);
+        } finally {
+            for (int i = 0; i < properties.length; i += 2) {
+                System.clearProperty(properties[i]);
+            }
+        }
+        return events;
+    }
+
+    @Test
+    public void recordsHistoryAndOrdersSpecsByItIfHistoryIsSet() throws Exception {
+        File file = File.createTempFile("history", ".ser");
+        file.deleteOnExit();
+        History history = new History(file);
+        history.record(Spec1.class.getName(), Spec1.Context.class.getName(), "behavior", 10, true);
+        history.record(Spec2.class.getName(), Spec2.Context.class.getName(), "behavior", 100, false);
+        history.save();
+        System.setProperty(History.FILE, file.getPath());
+        try {
+            assertEquals(asList(Spec2.class.getName(), Spec1.class.getName()), specsOf(new JDaveGroupRunner(Suite.class)));
+            System.setProperty(History.FAILED_FIRST, "true");
+            runner = new JDaveGroupRunner(Suite.class);
+            assertEquals(asList(Spec1.class.getName(), Spec2.class.getName()), specsOf(runner));
+            runner.run(new RunNotifier());
+        } finally {
+            System.clearProperty(History.FILE);
+            System.clearProperty(History.FAILED_FIRST);
+        }
+        History recorded = new History(file);
+        Assert.assertFalse(recorded.hasFailed(Spec1.class.getName()));
+        Assert.assertTrue(recorded.durationOf(Spec2.class.getName(), Spec2.Context.class.getName(), "behavior") < 100);
+    }
+
+    private List<String> specsOf(JDaveGroupRunner runner) {
+        List<String> specs = new ArrayList<String>();
+        for (Description spec : runner.getDescription().getChildren()) {
+            specs.add(spec.getDisplayName());
+        }
+        return specs;
+    }
+
+    @Test
+    public void runsOnlySpecsOfShardIfShardCountIsSet() {
+        List<String> specs = new ArrayList<String>();
+        System.setProperty(Shard.COUNT, "2");
+        try {
+            for (int i = 0; i < 2; i++) {
+                System.setProperty(Shard.INDEX, String.valueOf(i));
+                List<Description> children = new JDaveGroupRunner(Suite.class).getDescription().getChildren();
+                assertEquals(1, children.size());
+                specs.add(children.get(0).getDisplayName());
+            }
+        } finally {
+            System.clearProperty(Shard.COUNT);
+            System.clearProperty(Shard.INDEX);
+        }
+        Collections.sort(specs);
+        assertEquals(asList(Spec1.class.getName(), Spec2.class.getName()), specs);
+    }
+
     @Test
     public void categorizesSpecToDefaultGroupIfItHasRunWithJDaveRunnerAnnotation() throws Exception {
         runner = new JDaveGroupRunner(DefaultSpec.class);
@@ -119,6 +318,16 @@ public class JDaveGroupRunnerTest {
         Assert.assertFalse(runner.newAnnotatedSpecScanner("").isInDefaultGroup("", annotations));
     }
 
+    @Test
+    public void categorizesSpecToDefaultGroupByItsClassFile() throws Exception {
+        runner = new JDaveGroupRunner(DefaultSpec.class);
+        AnnotatedSpecScanner scanner = runner.newAnnotatedSpecScanner("");
+        Assert.assertTrue(scanner.isInDefaultGroup(classFileOf(DefaultSpec.class)));
+        Assert.assertTrue(scanner.isInDefaultGroup(classFileOf(InheritedDefaultSpec.class)));
+        Assert.assertFalse(scanner.isInDefaultGroup(classFileOf(SpecWithUnrecognizedAnnotation.class)));
+        Assert.assertFalse(scanner.isInDefaultGroup(classFileOf(JDaveGroupRunnerTest.class)));
+    }
+
     @Test
     public void usesDirectoriesSpecifiedBySpecDirsIfAnnotationIsPresent() throws Exception {
         final List<String> dirs = new ArrayList<String>();
@@ -163,6 +372,15 @@ public class JDaveGroupRunnerTest {
     public static class SuiteWithSpecifiedDirs {        
     }
 
+    private ClassFileInfo classFileOf(Class<?> type) throws IOException {
+        InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        try {
+            return ClassFileInfo.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
     @RunWith(JDaveRunner.class)
     @Groups(include="any")
     public static class DefaultSpec extends Specification<Void> {
@@ -172,6 +390,9 @@ public class JDaveGroupRunnerTest {
         }
     }
     
+    public static class InheritedDefaultSpec extends DefaultSpec {
+    }
+
     @Ignore
     public static class SpecWithUnrecognizedAnnotation extends Specification<Void> {
     }
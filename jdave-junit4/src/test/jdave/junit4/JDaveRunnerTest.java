@@ -16,10 +16,13 @@
 package jdave.junit4;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import jdave.Specification;
 import jdave.junit4.specs.DiverseSpec;
@@ -28,6 +31,8 @@ import org.junit.Test;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
 import org.junit.runner.RunWith;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runner.notification.StoppedByUserException;
@@ -90,6 +95,46 @@ public class JDaveRunnerTest {
 
     }
 
+    @Test
+    public void reportsBehaviorsWithDescriptionsOfTheDescriptionTree() {
+        final JDaveRunner runner = new JDaveRunner(ASpec.class);
+        final List<Description> started = new ArrayList<Description>();
+        runner.run(new RunNotifier() {
+            @Override
+            public void fireTestStarted(final Description description) {
+                started.add(description);
+            }
+        });
+        Description behavior = runner.getDescription().getChildren().get(0).getChildren().get(0);
+        assertEquals(1, started.size());
+        assertSame(behavior, started.get(0));
+    }
+
+    @Test
+    public void doesNotWrapBehaviorsOfClassesWithoutRules() {
+        assertTrue(new JDaveRunner(ASpec.class).getTestRules(new ASpec()).isEmpty());
+    }
+
+    @Test
+    public void runsOnlyBehaviorsAcceptedByFilter() throws Exception {
+        final JDaveRunner runner = new JDaveRunner(DiverseSpec.class);
+        runner.filter(Filter.matchMethodDescription(Description.createTestDescription(
+                DiverseSpec.FirstContext.class, "passes")));
+        assertEquals(1, runner.getDescription().testCount());
+        NarrativeCreatingRunNotifier filtered = new NarrativeCreatingRunNotifier();
+        runner.run(filtered);
+        assertEquals(Arrays.asList(
+                "fireTestStarted:passes(jdave.junit4.specs.DiverseSpec$FirstContext)",
+                "fireTestFinished:passes(jdave.junit4.specs.DiverseSpec$FirstContext)"),
+                filtered.events);
+    }
+
+    @Test(expected = NoTestsRemainException.class)
+    public void throwsIfFilterAcceptsNoBehaviors() throws Exception {
+        new JDaveRunner(DiverseSpec.class).filter(Filter.matchMethodDescription(
+                Description.createTestDescription(DiverseSpec.FirstContext.class, "noSuchBehavior")));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void parameterCanNotBeAnythingElse() {
         new JDaveRunner(Object.class);
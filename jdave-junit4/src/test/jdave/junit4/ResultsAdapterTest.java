@@ -16,6 +16,7 @@
 package jdave.junit4;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -23,6 +24,9 @@ import java.lang.reflect.Method;
 import java.util.LinkedList;
 
 import jdave.ExpectationFailedException;
+import jdave.runner.IPhaseListener;
+import jdave.runner.Phase;
+import jdave.runner.PhaseTimings;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -70,6 +74,20 @@ public class ResultsAdapterTest extends RunListener {
         assertTrue(failures.isEmpty());
     }
     
+    @Test
+    public void phaseTimingsAreForwardedToPhaseListener() {
+        PhaseTimings timings = new PhaseTimings();
+        adapter = ResultsAdapter.create(new RunNotifier(), description, timings);
+        ((IPhaseListener) adapter).phase(getClass(), method, Phase.BEHAVIOR, 42);
+        assertEquals(42, timings.total(getClass(), method));
+    }
+
+    @Test
+    public void phasesAreNotTimedWithoutPhaseListener() {
+        adapter = ResultsAdapter.create(new RunNotifier(), description, null);
+        assertFalse(adapter instanceof IPhaseListener);
+    }
+
     private void runNotifierShouldHaveReceived(Throwable e) {
         assertEquals(1, failures.size());
         Failure failure = failures.getFirst();
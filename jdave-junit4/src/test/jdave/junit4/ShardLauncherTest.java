@@ -0,0 +1,64 @@
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jdave.junit4;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import jdave.runner.History;
+import jdave.runner.Shard;
+
+import org.junit.Test;
+
+public class ShardLauncherTest {
+    @Test
+    public void mergesSpecDurationsOfHistoriesIntoDurationsFile() throws Exception {
+        File history1 = history("jdave.FooSpec", 10);
+        File history2 = history("jdave.BarSpec", 20);
+        File durations = File.createTempFile("durations", ".properties");
+        durations.deleteOnExit();
+        ShardLauncher.mergeDurations(durations, Arrays.asList(history1, history2));
+        Map<String, Long> merged = Shard.readDurations(durations);
+        assertEquals(2, merged.size());
+        assertEquals(Long.valueOf(10), merged.get("jdave.FooSpec"));
+        assertEquals(Long.valueOf(20), merged.get("jdave.BarSpec"));
+    }
+
+    @Test
+    public void parsesShardAndSuites() {
+        try {
+            assertEquals(Arrays.asList("a.Suite"), Arrays.asList(ShardLauncher.parse("--shard", "1/3", "a.Suite")));
+            assertEquals("1", System.getProperty(Shard.INDEX));
+            assertEquals("3", System.getProperty(Shard.COUNT));
+        } finally {
+            System.clearProperty(Shard.INDEX);
+            System.clearProperty(Shard.COUNT);
+        }
+    }
+
+    private File history(String spec, long duration) throws Exception {
+        File file = File.createTempFile("history", ".ser");
+        file.delete();
+        file.deleteOnExit();
+        History history = new History(file);
+        history.record(spec, spec + "$Context", "behavior", duration, false);
+        history.save();
+        return file;
+    }
+}